@@ -0,0 +1,60 @@
+package study.querydsl.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.MemberBulkLoader;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * <p>
+ * 로컬 H2 TCP 서버 대신 데이터 크기별 인메모리 H2 를 띄우고, SQL 로그는 끈다.
+ */
+final class BenchmarkContext {
+
+  static final int TEAM_COUNT = 10;
+  private static final int BATCH_SIZE = 1_000;
+
+  private BenchmarkContext() {
+  }
+
+  static ConfigurableApplicationContext start(String name) {
+    return start(name, new String[0]);
+  }
+
+  // overrides: "key=value", 같은 key 의 기본값을 대체한다. (같은 인자를 두 번 넘기면 값이 합쳐진다)
+  static ConfigurableApplicationContext start(String name, String... overrides) {
+    Map<String, String> args = new LinkedHashMap<>();
+    args.put("spring.profiles.active", "bench");
+    args.put("spring.datasource.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    args.put("spring.jpa.hibernate.ddl-auto", "create");
+    args.put("spring.jpa.properties.hibernate.format_sql", "false");
+    args.put("spring.jpa.properties.hibernate.use_sql_comments", "false");
+    args.put("logging.level.org.hibernate.SQL", "warn");
+    args.put("decorator.datasource.p6spy.enable-logging", "false");
+    args.put("querydsl.sql-trace.enabled", "false");
+    // 데이터 적재 전이고, 예열은 JMH warmup 이 한다.
+    args.put("querydsl.warmup.enabled", "false");
+    for (String override : overrides) {
+      int separator = override.indexOf('=');
+      args.put(override.substring(0, separator), override.substring(separator + 1));
+    }
+    return new SpringApplicationBuilder(QuerydslApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(args.entrySet().stream().map(arg -> "--" + arg.getKey() + "=" + arg.getValue()).toArray(String[]::new));
+  }
+
+  // team0 ~ team9 에 member 를 고르게 나누고, age 는 0 ~ 99
+  static void seed(ConfigurableApplicationContext context, int members) {
+    List<String> teamNames = new ArrayList<>();
+    for (int i = 0; i < TEAM_COUNT; i++) {
+      teamNames.add("team" + i);
+    }
+    context.getBean(MemberBulkLoader.class).load(teamNames, members, BATCH_SIZE, 1);
+  }
+}
@@ -0,0 +1,124 @@
+package study.querydsl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+/**
+ * 조회 방식별 성능 비교
+ * <p>
+ * BooleanBuilder / where 다중 파라미터 / 사용자 정의 리포지토리 / Querydsl4RepositorySupport 페이징을
+ * 같은 조건으로 데이터 크기별로 측정한다. searchView 는 join 없는 비정규화 테이블(member_team_view) 조회.
+ * pageComplex* / pageConcurrent*: count 를 쓰는 첫 페이지(Full)와 count 를 생략하는 마지막 페이지(Last)에서
+ * searchPageComplex 와 searchPageConcurrent 비교. Last 에서 차이가 searchPageConcurrent 가 버리는 count 비용이다.
+ * Throughput 은 ops/ms, SampleTime 은 p50 ~ p99.99 지연시간을 보여준다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberSearchBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  int members;
+
+  ConfigurableApplicationContext context;
+  MemberJpaRepository memberJpaRepository;
+  MemberRepository memberRepository;
+  MemberTestRepository memberTestRepository;
+  MemberSearchCondition condition;
+  PageRequest pageRequest;
+  PageRequest lastPageRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("search" + members);
+    BenchmarkContext.seed(context, members);
+    memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    memberRepository = context.getBean(MemberRepository.class);
+    memberTestRepository = context.getBean(MemberTestRepository.class);
+
+    condition = new MemberSearchCondition();
+    condition.setTeamName("team3");
+    condition.setAgeGoe(20);
+    condition.setAgeLoe(40);
+    pageRequest = PageRequest.of(0, 20);
+    // 마지막 페이지가 가득 차지 않게 총 건수가 20 의 배수면 한 칸 작은 페이지 크기를 쓴다.
+    long total = memberRepository.searchPageSimple(condition, pageRequest).getTotalElements();
+    int lastPageSize = total % 20 == 0 ? 19 : 20;
+    lastPageRequest = PageRequest.of((int) (total / lastPageSize), lastPageSize);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchByBuilder() {
+    return memberJpaRepository.searchByBuilder(condition);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchWhere() {
+    return memberJpaRepository.searchWhere(condition);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> repositorySearch() {
+    return memberRepository.search(condition);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchView() {
+    return memberRepository.searchView(condition);
+  }
+
+  @Benchmark
+  public Page<Member> applyPagination() {
+    return memberTestRepository.applyPagination(condition, pageRequest);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> pageComplexFull() {
+    return memberRepository.searchPageComplex(condition, pageRequest);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> pageConcurrentFull() {
+    return memberRepository.searchPageConcurrent(condition, pageRequest);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> pageComplexLast() {
+    return memberRepository.searchPageComplex(condition, lastPageRequest);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> pageConcurrentLast() {
+    return memberRepository.searchPageConcurrent(condition, lastPageRequest);
+  }
+}
@@ -0,0 +1,138 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.CompiledProjections;
+
+/**
+ * DTO 매핑 비용만 비교 (DB 없음)
+ * <p>
+ * Querydsl 이 결과 행(Object[])마다 호출하는 FactoryExpression.newInstance 를 ROWS 번 실행한다.
+ * 점수는 rows/ms, 행당 할당량은 gc 프로파일러(gc.alloc.rate.norm / ROWS)로 본다.
+ * MemberDto: Projections.bean / fields / constructor, @QueryProjection(QMemberDto) vs CompiledProjections
+ * MemberTeamDto: @QueryProjection(QMemberTeamDto) vs CompiledProjections.constructor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+  private static final int ROWS = 1_000;
+
+  Object[][] memberRows;
+  Object[][] memberTeamRows;
+
+  FactoryExpression<MemberDto> projectionsBean;
+  FactoryExpression<MemberDto> projectionsFields;
+  FactoryExpression<MemberDto> projectionsConstructor;
+  FactoryExpression<MemberDto> queryProjection;
+  FactoryExpression<MemberDto> compiledBean;
+  FactoryExpression<MemberDto> compiledFields;
+  FactoryExpression<MemberDto> compiledConstructor;
+  FactoryExpression<MemberTeamDto> memberTeamQueryProjection;
+  FactoryExpression<MemberTeamDto> memberTeamCompiled;
+
+  @Setup
+  public void setUp() {
+    memberRows = new Object[ROWS][];
+    memberTeamRows = new Object[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      memberRows[i] = new Object[]{"member" + i, i % 100};
+      memberTeamRows[i] = new Object[]{(long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)};
+    }
+
+    projectionsBean = Projections.bean(MemberDto.class, member.username, member.age);
+    projectionsFields = Projections.fields(MemberDto.class, member.username, member.age);
+    projectionsConstructor = Projections.constructor(MemberDto.class, member.username, member.age);
+    queryProjection = new QMemberDto(member.username, member.age);
+    compiledBean = CompiledProjections.bean(MemberDto.class, member.username, member.age);
+    compiledFields = CompiledProjections.fields(MemberDto.class, member.username, member.age);
+    compiledConstructor = CompiledProjections.constructor(MemberDto.class, member.username, member.age);
+    memberTeamQueryProjection = new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+    memberTeamCompiled = CompiledProjections.constructor(MemberTeamDto.class,
+        member.id, member.username, member.age, team.id, team.name);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void projectionsBean(Blackhole blackhole) {
+    map(projectionsBean, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void projectionsFields(Blackhole blackhole) {
+    map(projectionsFields, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void projectionsConstructor(Blackhole blackhole) {
+    map(projectionsConstructor, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void queryProjection(Blackhole blackhole) {
+    map(queryProjection, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void compiledBean(Blackhole blackhole) {
+    map(compiledBean, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void compiledFields(Blackhole blackhole) {
+    map(compiledFields, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void compiledConstructor(Blackhole blackhole) {
+    map(compiledConstructor, memberRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void memberTeamQueryProjection(Blackhole blackhole) {
+    map(memberTeamQueryProjection, memberTeamRows, blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void memberTeamCompiled(Blackhole blackhole) {
+    map(memberTeamCompiled, memberTeamRows, blackhole);
+  }
+
+  private static void map(FactoryExpression<?> projection, Object[][] rows, Blackhole blackhole) {
+    for (Object[] row : rows) {
+      blackhole.consume(projection.newInstance(row));
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package study.querydsl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+/**
+ * SQL 로그 방식별 쿼리당 오버헤드
+ * <p>
+ * none: SQL 로그 / 추적 없음 (기준)
+ * p6spy: p6spy 로그 + org.hibernate.SQL debug + format_sql (예전 기본 설정)
+ * sampling: SqlTracer, 1% 샘플링 + 100ms 이상만 기록
+ * sampling-all: SqlTracer, 전부 기록 (링 버퍼 최대 부하)
+ * 로그는 콘솔 대신 build/jmh/sql-trace-{mode}.log 로 남긴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlTraceBenchmark {
+
+  private static final int MEMBERS = 1_000;
+
+  @Param({"none", "p6spy", "sampling", "sampling-all"})
+  String mode;
+
+  ConfigurableApplicationContext context;
+  MemberJpaRepository memberJpaRepository;
+  MemberSearchCondition condition;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("trace-" + mode, overrides(mode));
+    BenchmarkContext.seed(context, MEMBERS);
+    memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+    condition = new MemberSearchCondition();
+    condition.setTeamName("team3");
+    condition.setAgeGoe(20);
+    condition.setAgeLoe(40);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  // 결과가 작은 쿼리: 고정 비용(로그 / 프록시)이 그대로 드러난다.
+  @Benchmark
+  public List<Member> findByUsername() {
+    return memberJpaRepository.findByUsername("member7");
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchWhere() {
+    return memberJpaRepository.searchWhere(condition);
+  }
+
+  private static String[] overrides(String mode) {
+    String log = "logging.file.name=build/jmh/sql-trace-" + mode + ".log";
+    String noConsole = "logging.pattern.console=";
+    return switch (mode) {
+      case "p6spy" -> new String[]{log, noConsole,
+          "decorator.datasource.p6spy.enable-logging=true",
+          "logging.level.org.hibernate.SQL=debug",
+          "spring.jpa.properties.hibernate.format_sql=true",
+          "spring.jpa.properties.hibernate.use_sql_comments=true"};
+      case "sampling" -> new String[]{log, noConsole,
+          "decorator.datasource.enabled=false",
+          "querydsl.sql-trace.enabled=true",
+          "querydsl.sql-trace.sample-rate=0.01",
+          "querydsl.sql-trace.slow-threshold=100ms"};
+      case "sampling-all" -> new String[]{log, noConsole,
+          "decorator.datasource.enabled=false",
+          "querydsl.sql-trace.enabled=true",
+          "querydsl.sql-trace.sample-rate=1"};
+      default -> new String[]{log, noConsole, "decorator.datasource.enabled=false"};
+    };
+  }
+}
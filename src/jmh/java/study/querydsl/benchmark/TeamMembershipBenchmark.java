@@ -0,0 +1,130 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamMembership;
+
+/**
+ * 팀 소속 변경 비용 비교
+ * <p>
+ * previousChangeTeam: 예전 changeTeam 그대로 관리 중인 Team 을 읽고 team 세팅 + team.getMembers().add(member)
+ * changeTeam: 지금 changeTeam (이미 로딩된 이전 팀 컬렉션에서도 뺀다)
+ * move / moveAll: TeamMembership, Team 을 읽지 않고 member 쪽만 바꾼다.
+ * 호출마다 다음 팀으로 옮겨서 커밋하므로 팀 크기는 members / TEAM_COUNT 근처로 유지된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamMembershipBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  int members;
+
+  // 한 번에 옮기는 member 수
+  @Param({"1", "100"})
+  int moves;
+
+  ConfigurableApplicationContext context;
+  EntityManager em;
+  TransactionTemplate tx;
+  TeamMembership teamMembership;
+  List<Long> teamIds;
+  List<Long> memberIds;
+  int round;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("membership" + members);
+    BenchmarkContext.seed(context, members);
+    em = context.getBean(EntityManager.class);
+    tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    teamMembership = context.getBean(TeamMembership.class);
+
+    JPAQueryFactory queryFactory = context.getBean(JPAQueryFactory.class);
+    teamIds = tx.execute(status -> em.createQuery("select t.id from Team t order by t.id", Long.class)
+                                     .getResultList());
+    memberIds = tx.execute(status -> queryFactory.select(member.id).from(member).orderBy(member.id.asc()).fetch());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public boolean previousChangeTeam() {
+    List<Long> ids = nextMembers();
+    Long teamId = nextTeam();
+    return tx.execute(status -> {
+      Team team = em.find(Team.class, teamId);
+      for (Long id : ids) {
+        Member found = em.find(Member.class, id);
+        found.setTeam(team);
+        team.getMembers().add(found);
+      }
+      return Hibernate.isInitialized(team.getMembers());
+    });
+  }
+
+  @Benchmark
+  public boolean changeTeam() {
+    List<Long> ids = nextMembers();
+    Long teamId = nextTeam();
+    return tx.execute(status -> {
+      Team team = em.find(Team.class, teamId);
+      for (Long id : ids) {
+        em.find(Member.class, id).changeTeam(team);
+      }
+      return Hibernate.isInitialized(team.getMembers());
+    });
+  }
+
+  @Benchmark
+  public void move() {
+    List<Long> ids = nextMembers();
+    Long teamId = nextTeam();
+    tx.executeWithoutResult(status -> ids.forEach(id -> teamMembership.move(id, teamId)));
+  }
+
+  @Benchmark
+  public long moveAll() {
+    List<Long> ids = nextMembers();
+    Long teamId = nextTeam();
+    return tx.execute(status -> teamMembership.moveAll(ids, teamId));
+  }
+
+  private List<Long> nextMembers() {
+    int from = (round * moves) % Math.max(1, memberIds.size() - moves);
+    return memberIds.subList(from, from + moves);
+  }
+
+  private Long nextTeam() {
+    return teamIds.get(round++ % teamIds.size());
+  }
+}
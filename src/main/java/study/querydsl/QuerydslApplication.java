@@ -2,11 +2,15 @@ package study.querydsl;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class QuerydslApplication {
 
   public static void main(String[] args) {
@@ -17,4 +21,10 @@ public class QuerydslApplication {
   JPAQueryFactory jpaQueryFactory(EntityManager em) {
     return new JPAQueryFactory(em);
   }
+
+  // 조회 쿼리 병렬 실행용, 작업마다 가상 쓰레드를 하나씩 쓴다. (JDBC 대기 중에도 캐리어 쓰레드를 점유하지 않음)
+  @Bean
+  ExecutorService queryExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
 }
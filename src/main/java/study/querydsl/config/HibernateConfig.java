@@ -0,0 +1,39 @@
+package study.querydsl.config;
+
+import java.util.List;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+  // Hibernate 는 StatementInspector 를 하나만 받으므로, 빈으로 등록된 inspector 를 순서대로 모두 거치도록 묶어서 등록한다.
+  @Bean
+  HibernatePropertiesCustomizer statementInspectorCustomizer(ObjectProvider<StatementInspector> inspectors) {
+    return properties -> properties.put(
+        AvailableSettings.STATEMENT_INSPECTOR,
+        new CompositeStatementInspector(inspectors.orderedStream().toList()));
+  }
+
+  static class CompositeStatementInspector implements StatementInspector {
+
+    private final List<StatementInspector> inspectors;
+
+    CompositeStatementInspector(List<StatementInspector> inspectors) {
+      this.inspectors = inspectors;
+    }
+
+    @Override
+    public String inspect(String sql) {
+      String inspected = sql;
+      for (StatementInspector inspector : inspectors) {
+        inspected = inspector.inspect(inspected);
+      }
+      return inspected;
+    }
+  }
+}
@@ -1,46 +1,30 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkLoader;
 
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
-  private final InitMemberService initMemberService;
+  private final MemberBulkLoader memberBulkLoader;
+
+  // 운영 규모 데이터가 필요하면 init.member-count / init.partitions 를 늘려서 실행
+  @Value("${init.member-count:200}")
+  private long memberCount;
+  @Value("${init.batch-size:1000}")
+  private int batchSize;
+  @Value("${init.partitions:1}")
+  private int partitions;
 
   @PostConstruct
   public void init() {
-    initMemberService.init();
-  }
-
-
-  @Component
-  static class InitMemberService {
-
-    @PersistenceContext
-    private EntityManager em;
-
-    @Transactional
-    public void init() {
-      Team teamA = new Team("teamA");
-      Team teamB = new Team("teamB");
-      em.persist(teamA);
-      em.persist(teamB);
-      for (int i = 1; i <= 100; i++) {
-        String username = "member" + i;
-        int age = i * 10;
-        Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-        em.persist(new study.querydsl.entity.Member(username, age, selectedTeam));
-        em.persist(new study.querydsl.entity.Member(username, age, selectedTeam));
-      }
-    }
+    memberBulkLoader.load(List.of("teamA", "teamB"), memberCount, batchSize, partitions);
   }
 }
@@ -1,36 +1,130 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberKeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
-import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.QueryRejectedException;
+import study.querydsl.service.MemberSearchService;
 
 @RestController
 @AllArgsConstructor
 public class MemberController {
 
+  // export 시 몇 건마다 클라이언트로 chunk 를 내보낼지
+  private static final int EXPORT_FLUSH_INTERVAL = 1_000;
+
   private final MemberJpaRepository memberJpaRepository;
-  private final MemberRepository memberRepository;
+  private final MemberSearchService memberSearchService;
+  private final ObjectMapper objectMapper;
 
   @GetMapping("/v1/members")
   public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-    return memberJpaRepository.searchWhere(condition);
+    return memberSearchService.search(condition);
+  }
+
+  // 결과 전체를 메모리에 올리지 않고 한 줄에 하나씩 JSON 으로 흘려보낸다. (NDJSON)
+  @GetMapping(value = "/v1/members/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public StreamingResponseBody exportMemberV1(MemberSearchCondition condition) {
+    return out -> {
+      OutputStream buffered = new BufferedOutputStream(out);
+      long[] written = {0};
+      memberJpaRepository.streamWhere(condition, dto -> {
+        try {
+          buffered.write(objectMapper.writeValueAsBytes(dto));
+          buffered.write('\n');
+          if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+            buffered.flush();
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      buffered.flush();
+    };
   }
 
+  // concurrent=true 면 content / count 쿼리를 동시에 실행한다.
   @GetMapping("/v2/members")
-  public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-    return memberRepository.searchPageSimple(condition, pageable);
+  public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean concurrent) {
+    if (concurrent) {
+      return memberSearchService.searchPageConcurrent(condition, pageable);
+    }
+    return memberSearchService.searchPageSimple(condition, pageable);
   }
 
   @GetMapping("/v3/members")
-  public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-    return memberRepository.searchPageComplex(condition, pageable);
+  public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean concurrent) {
+    if (concurrent) {
+      return memberSearchService.searchPageConcurrent(condition, pageable);
+    }
+    return memberSearchService.searchPageComplex(condition, pageable);
+  }
+
+  // count 없이 다음 페이지 존재 여부(hasNext)만 알려준다. (totalElements / totalPages 없음)
+  @GetMapping("/v5/members")
+  public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+    return memberSearchService.searchSlice(condition, pageable);
+  }
+
+  // 전체 건수를 추정값으로 내려준다. (approximate: true)
+  // 정확한 건수가 필요하면 exactCount=true 로 요청한다.
+  @GetMapping("/v6/members")
+  public ApproximatePage<MemberTeamDto> searchMemberV6(MemberSearchCondition condition, Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean exactCount) {
+    if (exactCount) {
+      Page<MemberTeamDto> page = memberSearchService.searchPageComplex(condition, pageable);
+      return new ApproximatePage<>(page.getContent(), page.getPageable(), page.getTotalElements(), false);
+    }
+    return memberSearchService.searchPageApproximate(condition, pageable);
+  }
+
+  // 키셋 페이징: 응답의 nextCursor 를 다음 요청의 cursor 로 넘긴다.
+  @GetMapping("/v4/members")
+  public MemberKeysetSlice searchMemberV4(MemberSearchCondition condition,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    return memberSearchService.searchByKeyset(condition, decodeCursor(cursor), size);
+  }
+
+  private MemberCursor decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      return MemberCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+  }
+
+  // QueryCostGuard 가 거절한 검색
+  @ExceptionHandler(QueryRejectedException.class)
+  public ProblemDetail handleQueryRejected(QueryRejectedException e) {
+    return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
   }
 
 }
@@ -0,0 +1,145 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.datasource.RoutingDataSourceProperties.Selection;
+
+/**
+ * 읽기 전용 트랜잭션은 replica, 나머지는 primary 로 보낸다.
+ * <p>
+ * 트랜잭션의 readOnly 여부는 트랜잭션이 시작된 뒤에 정해지므로 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ * lagQuery 가 있으면 주기적으로 replica 의 복제 지연을 확인해서 maxLag 를 넘은 replica 는 제외하고,
+ * 사용할 수 있는 replica 가 없으면 primary 에서 읽는다.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+  private final DataSource primary;
+  private final List<ReplicaNode> replicas = new ArrayList<>();
+  private final Selection selection;
+  private final String lagQuery;
+  private final long maxLagMillis;
+  private final AtomicInteger next = new AtomicInteger();
+  private ScheduledExecutorService lagChecker;
+
+  public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Selection selection,
+      String lagQuery, Duration maxLag) {
+    this.primary = primary;
+    for (int i = 0; i < replicas.size(); i++) {
+      this.replicas.add(new ReplicaNode("replica-" + i, replicas.get(i)));
+    }
+    this.selection = selection;
+    this.lagQuery = lagQuery;
+    this.maxLagMillis = maxLag.toMillis();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return determineTarget().getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return determineTarget().getConnection(username, password);
+  }
+
+  DataSource determineTarget() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return primary;
+    }
+    ReplicaNode replica = selectReplica();
+    return replica == null ? primary : replica.dataSource;
+  }
+
+  private ReplicaNode selectReplica() {
+    List<ReplicaNode> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+    if (healthy.isEmpty()) {
+      return null;
+    }
+    if (selection == Selection.LEAST_LOADED) {
+      return healthy.stream().min(Comparator.comparingInt(ReplicaNode::activeConnections)).orElseThrow();
+    }
+    return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+  }
+
+  public void startLagChecks(Duration interval) {
+    if (lagQuery == null || replicas.isEmpty()) {
+      return;
+    }
+    lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-lag-checker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    lagChecker.scheduleWithFixedDelay(this::checkLag, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  // 지연을 확인할 수 없는 replica 도 제외한다.
+  void checkLag() {
+    for (ReplicaNode replica : replicas) {
+      boolean healthy;
+      try (Connection connection = replica.dataSource.getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(lagQuery)) {
+        long lagMillis = resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+        healthy = lagMillis <= maxLagMillis;
+        if (!healthy) {
+          log.warn("{} lag {}ms exceeds {}ms, reading from other replicas", replica.name, lagMillis, maxLagMillis);
+        }
+      } catch (SQLException e) {
+        log.warn("{} lag check failed: {}", replica.name, e.getMessage());
+        healthy = false;
+      }
+      replica.healthy = healthy;
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (lagChecker != null) {
+      lagChecker.shutdownNow();
+    }
+    for (ReplicaNode replica : replicas) {
+      if (replica.dataSource instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+    if (primary instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private static class ReplicaNode {
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+
+    ReplicaNode(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+
+    int activeConnections() {
+      if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+        return hikari.getHikariPoolMXBean().getActiveConnections();
+      }
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * querydsl.datasource.routing.enabled=true 일 때 spring.datasource 를 primary 로,
+ * querydsl.datasource.routing.replicas 를 읽기 전용 replica 로 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+  @Bean(destroyMethod = "close")
+  ReadWriteRoutingDataSource routingDataSource(DataSourceProperties dataSourceProperties,
+      RoutingDataSourceProperties routing) {
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("primary");
+
+    List<DataSource> replicas = new ArrayList<>();
+    for (int i = 0; i < routing.getReplicas().size(); i++) {
+      RoutingDataSourceProperties.Replica replica = routing.getReplicas().get(i);
+      HikariDataSource dataSource = DataSourceBuilder.create()
+                                                     .type(HikariDataSource.class)
+                                                     .driverClassName(dataSourceProperties.getDriverClassName())
+                                                     .url(replica.getUrl())
+                                                     .username(replica.getUsername())
+                                                     .password(replica.getPassword())
+                                                     .build();
+      dataSource.setPoolName("replica-" + i);
+      dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+      dataSource.setReadOnly(true);
+      replicas.add(dataSource);
+    }
+
+    ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(
+        primary, replicas, routing.getSelection(), routing.getLagQuery(), routing.getMaxLag());
+    routingDataSource.startLagChecks(routing.getLagCheckInterval());
+    return routingDataSource;
+  }
+
+  // 커넥션을 실제 SQL 실행 시점에 가져와야 readOnly 트랜잭션 여부로 라우팅할 수 있다.
+  @Bean
+  @Primary
+  DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
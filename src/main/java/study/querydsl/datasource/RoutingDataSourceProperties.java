@@ -0,0 +1,38 @@
+package study.querydsl.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("querydsl.datasource.routing")
+public class RoutingDataSourceProperties {
+
+  public enum Selection {
+    ROUND_ROBIN,
+    // 사용 중인 커넥션이 가장 적은 replica
+    LEAST_LOADED
+  }
+
+  private boolean enabled = false;
+  private List<Replica> replicas = new ArrayList<>();
+  private Selection selection = Selection.ROUND_ROBIN;
+  // replica 에서 실행해서 복제 지연(ms)을 돌려주는 SQL, 없으면 지연 검사를 하지 않는다.
+  private String lagQuery;
+  private Duration maxLag = Duration.ofSeconds(5);
+  private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+  @Getter
+  @Setter
+  public static class Replica {
+
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+  }
+}
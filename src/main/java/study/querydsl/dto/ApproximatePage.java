@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import java.util.List;
+import lombok.Getter;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 전체 건수(totalElements)가 추정값일 수 있는 페이지
+ * <p>
+ * approximate 가 true 면 totalElements / totalPages 는 캐시된 건수나 테이블 통계로 구한 근사값이다.
+ */
+@Getter
+public class ApproximatePage<T> extends PageImpl<T> {
+
+  private final boolean approximate;
+
+  public ApproximatePage(List<T> content, Pageable pageable, long total, boolean approximate) {
+    super(content, pageable, total);
+    this.approximate = approximate;
+  }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 키셋(seek) 페이징 커서
+ * <p>
+ * 정렬 키(age)와 마지막으로 읽은 memberId 를 묶어서 클라이언트에게는 불투명한 문자열로 내려준다.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberCursor {
+
+  private final int age;
+  private final Long memberId;
+
+  public static MemberCursor of(MemberTeamDto last) {
+    return new MemberCursor(last.getAge(), last.getMemberId());
+  }
+
+  public String encode() {
+    String raw = age + ":" + memberId;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static MemberCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(':');
+      return new MemberCursor(
+          Integer.parseInt(raw.substring(0, separator)),
+          Long.parseLong(raw.substring(separator + 1)));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid member cursor: " + cursor, e);
+    }
+  }
+}
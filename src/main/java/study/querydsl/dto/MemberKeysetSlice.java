@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class MemberKeysetSlice {
+
+  private final List<MemberTeamDto> content;
+  private final boolean hasNext;
+  // 다음 페이지 요청에 그대로 넘겨주면 된다. 마지막 페이지면 null
+  private final String nextCursor;
+}
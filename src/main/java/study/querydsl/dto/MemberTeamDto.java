@@ -2,16 +2,17 @@ package study.querydsl.dto;
 
 
 import com.querydsl.core.annotations.QueryProjection;
-import lombok.Data;
+import lombok.Value;
 
-@Data
+// 검색 결과 캐시(MemberSearchCache)가 같은 인스턴스를 여러 호출자에게 돌려주므로 변경할 수 없게 둔다.
+@Value
 public class MemberTeamDto {
 
-  private Long memberId;
-  private String username;
-  private int age;
-  private Long teamId;
-  private String teamName;
+  Long memberId;
+  String username;
+  int age;
+  Long teamId;
+  String teamName;
 
   @QueryProjection
   public MemberTeamDto(Long memberId, String username, int age, Long teamId, String teamName) {
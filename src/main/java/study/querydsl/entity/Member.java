@@ -4,24 +4,37 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.Hibernate;
 
+// MemberSearchCondition 조합별 인덱스
+// username (+ age 범위), team(team_id, + age 범위), age 범위 단독 / 키셋 정렬(age, member_id)
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_member_username_age", columnList = "username, age"),
+    @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+    @Index(name = "idx_member_age_id", columnList = "age, member_id")})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+  // pooled 할당: 시퀀스 한 번 조회로 1000 개의 id 를 메모리에서 나눠준다. (대량 insert 시 시퀀스 왕복 감소)
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+  @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 1000)
   @Column(name = "member_id")
   private Long id;
   private String username;
@@ -29,6 +42,13 @@ public class Member {
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "team_id")
   private Team team;
+  // 같은 team_id 컬럼의 읽기 전용 매핑, 검색 조건에서만 쓴다. (MemberRepositoryImpl.teamNameEq)
+  // member.team 을 조인한 쿼리에서 member.team.id 는 조인된 team 의 컬럼이 되므로 member 의 FK 인덱스를 쓰려면 이 경로가 필요하다.
+  // changeTeam 후 다시 읽기 전까지는 이전 값이므로 엔티티에서는 꺼내지 않는다.
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @Column(name = "team_id", insertable = false, updatable = false)
+  private Long teamId;
 
   public Member(String username) {
     this(username, 0);
@@ -46,8 +66,21 @@ public class Member {
     }
   }
 
+  // 연관관계 주인은 Member.team 이다.
+  // Team.members 는 mappedBy 쪽 bag 이라 로딩 전에 add 하면 로딩하지 않고 작업을 쌓아 두었다가, 나중에 로딩할 때 합친다.
+  // 그래서 flush 전에 같은 트랜잭션에서 읽어도 추가한 member 가 보인다. Team 프록시는 add 하려면 Team 을 읽어야 하므로 건너뛴다.
+  // remove 는 bag 을 로딩하므로 이미 로딩된 컬렉션에서만 뺀다.
   public void changeTeam(Team team) {
+    if (this.team != null && membersLoaded(this.team)) {
+      this.team.getMembers().remove(this);
+    }
     this.team = team;
-    team.getMembers().add(this);
+    if (Hibernate.isInitialized(team)) {
+      team.getMembers().add(this);
+    }
+  }
+
+  private static boolean membersLoaded(Team team) {
+    return Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
   }
 }
\ No newline at end of file
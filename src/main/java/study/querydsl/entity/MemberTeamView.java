@@ -0,0 +1,38 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * member + team 비정규화 조회 테이블
+ * <p>
+ * 검색에 필요한 team.name 을 member 행에 같이 저장해서 join 없이 조회한다.
+ * JPA 로 직접 변경하지 않고 MemberTeamViewSynchronizer 가 SQL 로 맞춘다.
+ */
+@Entity
+@Immutable
+@Table(name = "member_team_view", indexes = {
+    @Index(name = "idx_member_team_view_username_age", columnList = "username, age"),
+    @Index(name = "idx_member_team_view_team_name_age", columnList = "team_name, age"),
+    @Index(name = "idx_member_team_view_age_id", columnList = "age, member_id")})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberTeamView {
+
+  @Id
+  @Column(name = "member_id")
+  private Long memberId;
+  private String username;
+  private int age;
+  private Long teamId;
+  private String teamName;
+}
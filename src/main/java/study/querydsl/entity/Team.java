@@ -1,10 +1,13 @@
 package study.querydsl.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.AccessLevel;
@@ -12,8 +15,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// 거의 변경되지 않는 데이터라 2차 캐시에 둔다.
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -25,6 +35,10 @@ public class Team {
   @Column(name = "team_id")
   private Long id;
   private String name;
+  // 컬렉션 캐시는 member id 목록만 저장한다. Member 는 자주 변경되고 대량 적재되므로 캐시하지 않고,
+  // 캐시 적중 시 member 를 id 로 하나씩 읽지 않도록 묶어서 조회한다.
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")
+  @BatchSize(size = 100)
   @OneToMany(mappedBy = "team")
   private List<Member> members = new ArrayList<>();
 
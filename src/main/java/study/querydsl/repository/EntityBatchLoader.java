@@ -0,0 +1,89 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.BatchLoader;
+
+/**
+ * Member / Team id 조회 묶음 실행
+ * <p>
+ * MemberTeamDto 의 memberId / teamId 로 엔티티를 하나씩 em.find 하면 id 마다 select 가 나간다.
+ * 짧은 시간(window) 동안 들어온 요청을 모아서 where id in (...) 한 번으로 조회한다.
+ * in 절 크기는 hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱에 맞춰진다.
+ * <p>
+ * 조회는 queryExecutor 에서 별도 읽기 전용 트랜잭션으로 실행되므로 돌려받는 엔티티는 준영속 상태다.
+ * Member 는 team 을 fetch join 해서 가져온다.
+ */
+@Component
+public class EntityBatchLoader implements DisposableBean {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "entity-batch-loader");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final BatchLoader<Long, Member> members;
+  private final BatchLoader<Long, Team> teams;
+
+  public EntityBatchLoader(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+      ExecutorService queryExecutor,
+      @Value("${querydsl.batch-loader.window:2ms}") Duration window,
+      @Value("${querydsl.batch-loader.max-batch-size:256}") int maxBatchSize) {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    this.members = new BatchLoader<>(
+        ids -> readOnly.execute(status -> byId(queryFactory.selectFrom(member)
+                                                           .leftJoin(member.team, team).fetchJoin()
+                                                           .where(member.id.in(ids))
+                                                           .fetch(), Member::getId)),
+        window, maxBatchSize, scheduler, queryExecutor);
+    this.teams = new BatchLoader<>(
+        ids -> readOnly.execute(status -> byId(queryFactory.selectFrom(team)
+                                                           .where(team.id.in(ids))
+                                                           .fetch(), Team::getId)),
+        window, maxBatchSize, scheduler, queryExecutor);
+  }
+
+  public CompletableFuture<Optional<Member>> findMemberById(Long id) {
+    return members.load(id).thenApply(Optional::ofNullable);
+  }
+
+  public CompletableFuture<Optional<Team>> findTeamById(Long id) {
+    return teams.load(id).thenApply(Optional::ofNullable);
+  }
+
+  // 요청 단위로 모은 id 를 window 를 기다리지 않고 바로 조회한다.
+  public void dispatch() {
+    members.dispatch();
+    teams.dispatch();
+  }
+
+  private static <T> Map<Long, T> byId(List<T> entities, Function<T, Long> idOf) {
+    return entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+  }
+
+  @Override
+  public void destroy() {
+    scheduler.shutdownNow();
+  }
+}
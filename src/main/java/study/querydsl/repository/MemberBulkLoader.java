@@ -0,0 +1,116 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 대량 초기 데이터 적재
+ * <p>
+ * member 범위를 partitions 개로 나눠서 각각 별도 쓰레드/트랜잭션에서 넣는다.
+ * batchSize 건마다 flush/clear 해서 JDBC batch insert 로 보내고 영속성 컨텍스트를 비운다.
+ * id 는 시퀀스 pooled 할당(Member allocationSize)을 사용하므로 insert 마다 시퀀스를 조회하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberBulkLoader {
+
+  // batchSize * COMMIT_BATCHES 건마다 커밋
+  private static final int COMMIT_BATCHES = 10;
+
+  private final EntityManager em;
+  private final PlatformTransactionManager transactionManager;
+
+  // member{i} 의 age 는 i % 100, 팀은 teamNames 순서대로 돌아가며 배정한다.
+  public LoadResult load(List<String> teamNames, long memberCount, int batchSize, int partitions) {
+    Assert.notEmpty(teamNames, "Team names must not be empty!");
+    Assert.isTrue(batchSize > 0, "Batch size must be greater than zero!");
+    Assert.isTrue(partitions > 0, "Partitions must be greater than zero!");
+
+    long start = System.nanoTime();
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    List<Long> teamIds = tx.execute(status -> persistTeams(teamNames));
+
+    long partitionSize = (memberCount + partitions - 1) / partitions;
+    ExecutorService executor = Executors.newFixedThreadPool(partitions);
+    try {
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (long from = 1; from <= memberCount; from += partitionSize) {
+        long first = from;
+        long last = Math.min(memberCount, from + partitionSize - 1);
+        futures.add(CompletableFuture.runAsync(
+            () -> loadPartition(tx, teamIds, first, last, batchSize), executor));
+      }
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } finally {
+      executor.shutdown();
+    }
+
+    LoadResult result = new LoadResult(teamNames.size() + memberCount, Duration.ofNanos(System.nanoTime() - start));
+    log.info("bulk load finished: rows={}, elapsed={}ms, rows/sec={}",
+        result.getRows(), result.getElapsed().toMillis(), String.format("%.0f", result.getRowsPerSecond()));
+    return result;
+  }
+
+  private List<Long> persistTeams(List<String> teamNames) {
+    List<Long> teamIds = new ArrayList<>();
+    for (String teamName : teamNames) {
+      Team team = new Team(teamName);
+      em.persist(team);
+      teamIds.add(team.getId());
+    }
+    return teamIds;
+  }
+
+  private void loadPartition(TransactionTemplate tx, List<Long> teamIds, long first, long last, int batchSize) {
+    long commitSize = (long) batchSize * COMMIT_BATCHES;
+    for (long from = first; from <= last; from += commitSize) {
+      long to = Math.min(last, from + commitSize - 1);
+      long commitFrom = from;
+      tx.executeWithoutResult(status -> insertMembers(teamIds, commitFrom, to, batchSize));
+    }
+  }
+
+  private void insertMembers(List<Long> teamIds, long from, long to, int batchSize) {
+    em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+    for (long i = from; i <= to; i++) {
+      // Team 프록시라 changeTeam() 이 team.members 컬렉션을 초기화하지 않는다.
+      Team team = em.getReference(Team.class, teamIds.get((int) (i % teamIds.size())));
+      em.persist(new Member("member" + i, (int) (i % 100), team));
+      if ((i - from + 1) % batchSize == 0) {
+        em.flush();
+        em.clear();
+      }
+    }
+    em.flush();
+    em.clear();
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class LoadResult {
+
+    private final long rows;
+    private final Duration elapsed;
+
+    public double getRowsPerSecond() {
+      long nanos = Math.max(1, elapsed.toNanos());
+      return rows * 1_000_000_000d / nanos;
+    }
+  }
+}
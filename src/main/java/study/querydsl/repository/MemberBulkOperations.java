@@ -0,0 +1,174 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.view.MemberTeamViewSynchronizer;
+
+/**
+ * 청크 단위 벌크 update / delete
+ * <p>
+ * queryFactory.update(member)... 처럼 한 문장으로 전체를 바꾸면 큰 테이블에서 락과 undo 가 오래 유지된다.
+ * 조건에 맞는 member 를 id 순서로 chunkSize 개씩 골라서 청크마다 별도 트랜잭션(REQUIRES_NEW)으로 처리한다.
+ * <p>
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 호출한 쪽 영속성 컨텍스트에 이미 올라와 있는 member 는
+ * 청크가 커밋될 때마다 update 는 refresh, delete 는 detach 해서 맞춰 준다.
+ * 청크는 별도 트랜잭션이라 호출한 트랜잭션에서 같은 행을 수정(flush)한 상태로 호출하면 락을 기다리게 되니 주의.
+ * predicate 에는 member, team(left join) 경로를 사용할 수 있다.
+ * 청크마다 바꾼 id 를 알고 있으므로 member_team_view 는 전체 rebuild 없이 해당 행만 맞춘다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberBulkOperations {
+
+  private final JPAQueryFactory queryFactory;
+  private final EntityManagerFactory emf;
+  private final PlatformTransactionManager transactionManager;
+  private final MemberTeamViewSynchronizer viewSynchronizer;
+
+  // 예) update(member.age.lt(28), clause -> clause.set(member.username, "non-member"), 1000)
+  public BulkResult update(Predicate predicate, UnaryOperator<JPAUpdateClause> assignments, int chunkSize) {
+    return update(predicate, assignments, chunkSize, progress -> {
+    });
+  }
+
+  public BulkResult update(Predicate predicate, UnaryOperator<JPAUpdateClause> assignments, int chunkSize,
+      Consumer<BulkResult> progress) {
+    return execute("update", predicate, chunkSize, progress,
+        ids -> viewSynchronizer.updateMembers(ids,
+            () -> assignments.apply(queryFactory.update(member)).where(member.id.in(ids)).execute()),
+        EntityManager::refresh);
+  }
+
+  public BulkResult delete(Predicate predicate, int chunkSize) {
+    return delete(predicate, chunkSize, progress -> {
+    });
+  }
+
+  public BulkResult delete(Predicate predicate, int chunkSize, Consumer<BulkResult> progress) {
+    return execute("delete", predicate, chunkSize, progress,
+        ids -> viewSynchronizer.updateMembers(ids,
+            () -> queryFactory.delete(member).where(member.id.in(ids)).execute()),
+        EntityManager::detach);
+  }
+
+  private BulkResult execute(String operation, Predicate predicate, int chunkSize, Consumer<BulkResult> progress,
+      ChunkStatement statement, SyncAction sync) {
+    Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero!");
+
+    // 청크 트랜잭션 안에서는 공유 EntityManager 가 청크의 EntityManager 를 가리키므로 호출한 쪽 것을 미리 잡아 둔다.
+    EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+    TransactionTemplate chunkTx = new TransactionTemplate(transactionManager);
+    chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    long start = System.nanoTime();
+    long rows = 0;
+    int chunks = 0;
+    long[] affected = new long[1];
+    Long lastId = 0L;
+    while (true) {
+      Long afterId = lastId;
+      List<Long> ids = chunkTx.execute(status -> {
+        List<Long> chunk = selectIds(predicate, afterId, chunkSize);
+        if (!chunk.isEmpty()) {
+          affected[0] += statement.execute(chunk);
+        }
+        return chunk;
+      });
+      if (ids.isEmpty()) {
+        break;
+      }
+      rows = affected[0];
+      chunks++;
+      lastId = ids.get(ids.size() - 1);
+      syncPersistenceContext(callerEm, ids, sync);
+
+      BulkResult current = new BulkResult(rows, chunks, Duration.ofNanos(System.nanoTime() - start));
+      log.debug("bulk {} chunk {}: rows={}, rows/sec={}", operation, chunks, rows,
+          String.format("%.0f", current.getRowsPerSecond()));
+      progress.accept(current);
+      if (ids.size() < chunkSize) {
+        break;
+      }
+    }
+
+    BulkResult result = new BulkResult(rows, chunks, Duration.ofNanos(System.nanoTime() - start));
+    log.info("bulk {} finished: rows={}, chunks={}, elapsed={}ms, rows/sec={}", operation, result.getRows(),
+        result.getChunks(), result.getElapsed().toMillis(), String.format("%.0f", result.getRowsPerSecond()));
+    return result;
+  }
+
+  // id 순서로 이어서 고르므로 update 로 조건이 바뀌어도 같은 행을 다시 처리하지 않는다.
+  private List<Long> selectIds(Predicate predicate, Long afterId, int chunkSize) {
+    return queryFactory.select(member.id)
+                       .from(member)
+                       .leftJoin(member.team, team)
+                       .where(predicate, member.id.gt(afterId))
+                       .orderBy(member.id.asc())
+                       .limit(chunkSize)
+                       .fetch();
+  }
+
+  // 영속성 컨텍스트에 이미 있는 member 만 맞춘다. (없는 것을 새로 로딩하지 않는다)
+  private void syncPersistenceContext(EntityManager callerEm, List<Long> ids, SyncAction sync) {
+    if (callerEm == null) {
+      return;
+    }
+    SessionImplementor session = callerEm.unwrap(SessionImplementor.class);
+    EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+    for (Long id : ids) {
+      Object entity = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+      if (entity != null) {
+        sync.apply(callerEm, entity);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ChunkStatement {
+
+    long execute(List<Long> ids);
+  }
+
+  @FunctionalInterface
+  private interface SyncAction {
+
+    void apply(EntityManager em, Object entity);
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class BulkResult {
+
+    private final long rows;
+    private final int chunks;
+    private final Duration elapsed;
+
+    public double getRowsPerSecond() {
+      long nanos = Math.max(1, elapsed.toNanos());
+      return rows * 1_000_000_000d / nanos;
+    }
+  }
+}
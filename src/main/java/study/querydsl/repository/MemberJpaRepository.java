@@ -7,17 +7,23 @@ import static study.querydsl.entity.QTeam.team;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Member;
 
 @Repository
@@ -25,6 +31,12 @@ import study.querydsl.entity.Member;
 @Transactional
 public class MemberJpaRepository {
 
+  // 스트리밍 조회 시 한 번에 DB 에서 가져오는 행 수, 영속성 컨텍스트를 비우는 주기
+  static final int STREAM_FETCH_SIZE = 500;
+  static final int STREAM_CLEAR_INTERVAL = 1_000;
+
+  private static final QTeam teamByName = new QTeam("teamByName");
+
   private final EntityManager em;
   private final JPAQueryFactory queryFactory;
 
@@ -32,14 +44,17 @@ public class MemberJpaRepository {
     em.persist(member);
   }
 
+  @Transactional(readOnly = true)
   public Optional<Member> findById(Long id) {
     return Optional.ofNullable(em.find(Member.class, id));
   }
 
+  @Transactional(readOnly = true)
   public List<Member> findAll() {
     return em.createQuery("select m from Member m", Member.class).getResultList();
   }
 
+  @Transactional(readOnly = true)
   public List<Member> findByUsername(String username) {
     return em.createQuery("select m from Member m where m.username =:username", Member.class)
              .setParameter(
@@ -48,14 +63,17 @@ public class MemberJpaRepository {
              .getResultList();
   }
 
+  @Transactional(readOnly = true)
   public List<Member> findAll_Querydsl() {
     return queryFactory.selectFrom(member).fetch();
   }
 
+  @Transactional(readOnly = true)
   public List<Member> findByUsername_Querydsl(String username) {
     return queryFactory.selectFrom(member).where(member.username.eq(username)).fetch();
   }
 
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
     BooleanBuilder builder = new BooleanBuilder();
@@ -84,7 +102,15 @@ public class MemberJpaRepository {
                        .fetch();
   }
 
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> searchWhere(MemberSearchCondition condition) {
+    return searchWhere(condition, false);
+  }
+
+  // cacheable = true 면 Hibernate 쿼리 캐시를 사용한다.
+  // member / team 이 변경되면(벌크 update / delete 포함) Hibernate 가 테이블 단위로 캐시된 결과를 무효화한다.
+  @Transactional(readOnly = true)
+  public List<MemberTeamDto> searchWhere(MemberSearchCondition condition, boolean cacheable) {
 
     return queryFactory.select(new QMemberTeamDto(
                            member.id.as("memberId"),
@@ -97,7 +123,38 @@ public class MemberJpaRepository {
                        //     teamNameEq(condition.getTeamName()),
                        //     ageGoe(condition.getAgeGoe()),
                        //     ageLoe(condition.getAgeLoe()))
-                       .where(checkMemberDtoAll(condition)).fetch();
+                       .where(checkMemberDtoAll(condition))
+                       .setHint(HibernateHints.HINT_CACHEABLE, cacheable)
+                       .fetch();
+  }
+
+  // 대용량 export 용
+  // fetch() 는 결과 전체를 List 로 올리지만, stream() 은 JDBC 커서로 한 행씩 읽어서 consumer 에 넘긴다.
+  // 스트림이 열려 있는 동안 커넥션/트랜잭션이 유지되어야 하므로 Stream 을 반환하지 않고 여기서 소비한다.
+  // DTO 조회라 영속성 컨텍스트에 쌓이는 것은 없지만, 조회 중 엔티티가 로딩되는 경우를 대비해서 주기적으로 비운다.
+  @Transactional(readOnly = true)
+  public long streamWhere(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+    long count = 0;
+    try (Stream<MemberTeamDto> stream = queryFactory.select(new QMemberTeamDto(
+                                                        member.id.as("memberId"),
+                                                        member.username,
+                                                        member.age,
+                                                        team.id.as("teamId"),
+                                                        team.name.as("teamName")))
+                                                    .from(member)
+                                                    .leftJoin(member.team, team)
+                                                    .where(checkMemberDtoAll(condition))
+                                                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                                                    .stream()) {
+      Iterator<MemberTeamDto> iterator = stream.iterator();
+      while (iterator.hasNext()) {
+        consumer.accept(iterator.next());
+        if (++count % STREAM_CLEAR_INTERVAL == 0) {
+          em.clear();
+        }
+      }
+    }
+    return count;
   }
 
   // StringUtils.hasText() -> 문자열이 null 이 아니고, 빈 문자열도 아니고, 공백으로만 이뤄지지 않는 경우 true
@@ -108,8 +165,15 @@ public class MemberJpaRepository {
     return StringUtils.hasText(username) ? member.username.eq(username) : null;
   }
 
+  // team.name 조건을 outer join 된 team 에 걸면 DB 가 member 부터 전부 읽어야 한다.
+  // team_id in (select ... where name = ?) 로 바꾸면 team.name 인덱스 -> member(team_id, age) 인덱스 순서로 찾는다.
+  // (outer join 한 team 은 select 절에서만 쓰이므로 count 쿼리에서는 join 이 빠진다)
   private BooleanExpression teamNameEq(String teamName) {
-    return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    return StringUtils.hasText(teamName)
+        ? member.team.id.in(JPAExpressions.select(teamByName.id)
+                                          .from(teamByName)
+                                          .where(teamByName.name.eq(teamName)))
+        : null;
   }
 
   private BooleanExpression ageGoe(Integer age) {
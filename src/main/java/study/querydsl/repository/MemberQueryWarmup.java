@@ -0,0 +1,154 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.QueryCostGuard;
+
+/**
+ * 기동 직후 회원 검색 쿼리 예열
+ * <p>
+ * checkMemberDtoAll 이 만드는 조건 조합 16 가지 x MemberRepositoryImpl 의 조회 메서드(첫 페이지 / 다음 페이지, count 포함)를
+ * 읽기 전용 트랜잭션에서 한 번씩 실행해서 Hibernate 쿼리 plan 캐시, JIT, 커넥션 풀을 미리 데운다.
+ * ApplicationRunner 는 readiness(ACCEPTING_TRAFFIC) 전에 실행되므로 예열이 끝난 뒤 트래픽을 받는다.
+ * 서비스 계층(MemberSearchService)을 거치지 않으므로 검색 결과 캐시는 채우지 않는다.
+ * 선택적인 조건이 없는 조합(QueryCostGuard.isSelective)은 페이지 없는 목록 조회(search, searchView)가 테이블 전체를 읽으므로
+ * offset / limit 가 있는 조회만 실행한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "querydsl.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MemberQueryWarmup implements ApplicationRunner {
+
+  private static final String USERNAME = "member1";
+  private static final String TEAM_NAME = "teamA";
+  private static final int AGE_GOE = 10;
+  private static final int AGE_LOE = 40;
+
+  private final MemberRepository memberRepository;
+  private final TransactionTemplate readOnlyTx;
+  private final EntityManagerFactory emf;
+  private final int iterations;
+  private final int pageSize;
+
+  public MemberQueryWarmup(MemberRepository memberRepository, PlatformTransactionManager transactionManager,
+      EntityManagerFactory emf,
+      @Value("${querydsl.warmup.iterations:3}") int iterations,
+      @Value("${querydsl.warmup.page-size:20}") int pageSize) {
+    this.memberRepository = memberRepository;
+    this.readOnlyTx = new TransactionTemplate(transactionManager);
+    this.readOnlyTx.setReadOnly(true);
+    this.emf = emf;
+    this.iterations = iterations;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    warmUp();
+  }
+
+  public WarmupReport warmUp() {
+    Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    long planMisses = statistics.getQueryPlanCacheMissCount();
+    long planHits = statistics.getQueryPlanCacheHitCount();
+    long statements = statistics.getPrepareStatementCount();
+    long start = System.nanoTime();
+
+    List<MemberSearchCondition> shapes = shapes();
+    int calls = 0;
+    int failures = 0;
+    for (int i = 0; i < iterations; i++) {
+      for (MemberSearchCondition condition : shapes) {
+        // 조건 조합마다 트랜잭션을 나눠서 트랜잭션당 SQL 수 제한(statement-budget)에 걸리지 않게 한다.
+        try {
+          calls += readOnlyTx.execute(status -> runShape(condition));
+        } catch (RuntimeException e) {
+          // 예열 실패로 기동을 막지는 않는다.
+          failures++;
+          log.warn("query warm-up failed for {}: {}", condition, e.toString());
+        }
+      }
+    }
+
+    WarmupReport report = new WarmupReport(
+        shapes.size(),
+        calls,
+        failures,
+        Duration.ofNanos(System.nanoTime() - start),
+        statistics.isStatisticsEnabled() ? statistics.getQueryPlanCacheMissCount() - planMisses : -1,
+        statistics.isStatisticsEnabled() ? statistics.getQueryPlanCacheHitCount() - planHits : -1,
+        statistics.isStatisticsEnabled() ? statistics.getPrepareStatementCount() - statements : -1);
+    log.info("query warm-up finished: shapes={}, calls={}, failures={}, elapsed={}ms, planCacheMisses={}, "
+            + "planCacheHits={}, statements={}", report.getShapes(), report.getCalls(), report.getFailures(),
+        report.getElapsed().toMillis(), report.getPlanCacheMisses(), report.getPlanCacheHits(), report.getStatements());
+    return report;
+  }
+
+  // 한 조건 조합에 대해 조회 메서드를 모두 실행한다. 첫 페이지(limit)와 다음 페이지(offset + limit)는 SQL 이 다르다.
+  private int runShape(MemberSearchCondition condition) {
+    PageRequest first = PageRequest.of(0, pageSize);
+    PageRequest next = PageRequest.of(1, pageSize);
+    int calls = 0;
+    if (QueryCostGuard.isSelective(condition)) {
+      memberRepository.search(condition);
+      memberRepository.searchView(condition);
+      calls += 2;
+    }
+    memberRepository.searchPageSimple(condition, first);
+    memberRepository.searchPageSimple(condition, next);
+    memberRepository.searchPageComplex(condition, first);
+    memberRepository.searchPageComplex(condition, next);
+    memberRepository.searchSlice(condition, first);
+    memberRepository.searchSlice(condition, next);
+    memberRepository.searchByKeyset(condition, null, pageSize);
+    memberRepository.searchByKeyset(condition, new MemberCursor(AGE_GOE, 0L), pageSize);
+    return calls + 8;
+  }
+
+  // username / teamName / ageGoe / ageLoe 사용 여부 조합 16 가지
+  static List<MemberSearchCondition> shapes() {
+    List<MemberSearchCondition> shapes = new ArrayList<>();
+    for (int mask = 0; mask < 16; mask++) {
+      MemberSearchCondition condition = new MemberSearchCondition();
+      condition.setUsername((mask & 1) != 0 ? USERNAME : null);
+      condition.setTeamName((mask & 2) != 0 ? TEAM_NAME : null);
+      condition.setAgeGoe((mask & 4) != 0 ? AGE_GOE : null);
+      condition.setAgeLoe((mask & 8) != 0 ? AGE_LOE : null);
+      shapes.add(condition);
+    }
+    return shapes;
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class WarmupReport {
+
+    private final int shapes;
+    private final int calls;
+    private final int failures;
+    private final Duration elapsed;
+    // 이번 예열 동안의 plan 캐시 miss / hit 수 (통계가 꺼져 있으면 -1)
+    // HQL 해석과 SQL plan 을 합친 값이다. Querydsl 은 DTO projection 쿼리마다 새 결과 변환기를 붙이고
+    // 변환기가 SQL plan 캐시 키에 들어가므로, 이미 예열된 모양도 실행할 때마다 SQL plan miss 가 하나씩 생긴다.
+    private final long planCacheMisses;
+    private final long planCacheHits;
+    private final long statements;
+  }
+}
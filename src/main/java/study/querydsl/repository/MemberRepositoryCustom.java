@@ -3,6 +3,10 @@ package study.querydsl.repository;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberKeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
@@ -10,7 +14,22 @@ public interface MemberRepositoryCustom {
 
   List<MemberTeamDto> search(MemberSearchCondition condition);
 
+  // member_team_view 를 join 없이 조회한다. 결과는 search 와 같다.
+  List<MemberTeamDto> searchView(MemberSearchCondition condition);
+
   Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
   Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+  // count 쿼리 없이 pageSize + 1 건을 읽어서 다음 페이지 존재 여부만 알려준다.
+  Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+  // 전체 건수를 count 쿼리 대신 MemberCountEstimator 의 추정값으로 채운다. (마지막 페이지면 정확한 값)
+  ApproximatePage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable);
+
+  // content 쿼리와 count 쿼리를 각각 별도 트랜잭션에서 동시에 실행한다.
+  Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable);
+
+  // offset 대신 (age, memberId) 커서 이후부터 size 건을 읽는다. cursor 가 null 이면 첫 페이지
+  MemberKeysetSlice searchByKeyset(MemberSearchCondition condition, MemberCursor cursor, int size);
 }
@@ -2,28 +2,56 @@ package study.querydsl.repository;
 
 import static com.querydsl.core.types.ExpressionUtils.count;
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberTeamView.memberTeamView;
 import static study.querydsl.entity.QTeam.team;
 
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberKeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.QTeam;
+import study.querydsl.repository.cache.MemberCountEstimator;
+import study.querydsl.repository.support.CountQueryTracker;
+import study.querydsl.repository.support.QueryCostGuard;
 
 
+// 조회 전용이라 읽기 전용 트랜잭션으로 실행한다. (라우팅이 켜져 있으면 replica 에서 읽는다)
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+  private static final QTeam teamByName = new QTeam("teamByName");
+
   private final JPAQueryFactory queryFactory;
+  private final PlatformTransactionManager transactionManager;
+  private final ExecutorService queryExecutor;
+  private final MemberCountEstimator countEstimator;
+  private final QueryCostGuard queryCostGuard;
 
   // QuerydslRepositorySupport 사용 코드
   // public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberRepositoryCustom {
@@ -46,21 +74,41 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     //                                              team.name.as("teamName")))
     //                                          .fetch();
 
-    return queryFactory.select(new QMemberTeamDto(
-                           member.id.as("memberId"),
-                           member.username,
-                           member.age,
-                           team.id.as("teamId"),
-                           team.name.as("teamName"))).from(member).leftJoin(member.team, team)
-                       // .where(
-                       //     usernameEq(condition.getUsername()),
-                       //     teamNameEq(condition.getTeamName()),
-                       //     ageGoe(condition.getAgeGoe()),
-                       //     ageLoe(condition.getAgeLoe()))
-                       .where(checkMemberDtoAll(condition)).fetch();
+    return select(new QMemberTeamDto(
+              member.id.as("memberId"),
+              member.username,
+              member.age,
+              team.id.as("teamId"),
+              team.name.as("teamName"))).from(member).leftJoin(member.team, team)
+          // .where(
+          //     usernameEq(condition.getUsername()),
+          //     teamNameEq(condition.getTeamName()),
+          //     ageGoe(condition.getAgeGoe()),
+          //     ageLoe(condition.getAgeLoe()))
+          .where(checkMemberDtoAll(condition)).fetch();
   }
 
 
+  // 비정규화 테이블(member_team_view) 조회: team.name 이 같은 행에 있으므로 join 이 필요 없다.
+  @Override
+  public List<MemberTeamDto> searchView(MemberSearchCondition condition) {
+    return select(new QMemberTeamDto(
+              memberTeamView.memberId,
+              memberTeamView.username,
+              memberTeamView.age,
+              memberTeamView.teamId,
+              memberTeamView.teamName))
+          .from(memberTeamView)
+          .where(
+              StringUtils.hasText(condition.getUsername())
+                  ? memberTeamView.username.eq(condition.getUsername()) : null,
+              StringUtils.hasText(condition.getTeamName())
+                  ? memberTeamView.teamName.eq(condition.getTeamName()) : null,
+              condition.getAgeGoe() == null ? null : memberTeamView.age.goe(condition.getAgeGoe()),
+              condition.getAgeLoe() == null ? null : memberTeamView.age.loe(condition.getAgeLoe()))
+          .fetch();
+  }
+
   private BooleanExpression checkMemberDtoAll(MemberSearchCondition condition) {
     BooleanExpression username = usernameEq(condition.getUsername());
     BooleanExpression teamName = teamNameEq(condition.getTeamName());
@@ -72,58 +120,185 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
   @Override
   public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-    List<MemberTeamDto> result = queryFactory.select(new QMemberTeamDto(
-                                                 member.id.as("memberId"),
-                                                 member.username,
-                                                 member.age,
-                                                 team.id.as("teamId"),
-                                                 team.name.as("teamName")))
-                                             .from(member)
-                                             .leftJoin(member.team, team)
-                                             // .where(
-                                             //     usernameEq(condition.getUsername()),
-                                             //     teamNameEq(condition.getTeamName()),
-                                             //     ageGoe(condition.getAgeGoe()),
-                                             //     ageLoe(condition.getAgeLoe()))
-                                             .where(checkMemberDtoAll(condition))
-                                             .offset(pageable.getOffset())
-                                             .limit(pageable.getPageSize())
-                                             .fetch();
-    Long count = queryFactory.select(count(member)).from(member).where(checkMemberDtoAll(condition)).fetchOne();
+    List<MemberTeamDto> result = select(new QMemberTeamDto(
+                                    member.id.as("memberId"),
+                                    member.username,
+                                    member.age,
+                                    team.id.as("teamId"),
+                                    team.name.as("teamName")))
+                                .from(member)
+                                .leftJoin(member.team, team)
+                                // .where(
+                                //     usernameEq(condition.getUsername()),
+                                //     teamNameEq(condition.getTeamName()),
+                                //     ageGoe(condition.getAgeGoe()),
+                                //     ageLoe(condition.getAgeLoe()))
+                                .where(checkMemberDtoAll(condition))
+                                .offset(pageable.getOffset())
+                                .limit(pageable.getPageSize())
+                                .fetch();
+    Long count = select(count(member)).from(member).where(checkMemberDtoAll(condition)).fetchOne();
+    CountQueryTracker.markExecuted();
 
     return new PageImpl<>(result, pageable, count);
   }
 
   @Override
   public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-    List<MemberTeamDto> result = queryFactory.select(new QMemberTeamDto(
-                                                 member.id.as("memberId"),
-                                                 member.username,
-                                                 member.age,
-                                                 team.id.as("teamId"),
-                                                 team.name.as("teamName")))
-                                             .from(member)
-                                             .leftJoin(member.team, team)
-                                             // .where(
-                                             //     usernameEq(condition.getUsername()),
-                                             //     teamNameEq(condition.getTeamName()),
-                                             //     ageGoe(condition.getAgeGoe()),
-                                             //     ageLoe(condition.getAgeLoe()))
-                                             .where(checkMemberDtoAll(condition))
-                                             .offset(pageable.getOffset())
-                                             .limit(pageable.getPageSize())
-                                             .fetch();
+    List<MemberTeamDto> result = select(new QMemberTeamDto(
+                                    member.id.as("memberId"),
+                                    member.username,
+                                    member.age,
+                                    team.id.as("teamId"),
+                                    team.name.as("teamName")))
+                                .from(member)
+                                .leftJoin(member.team, team)
+                                // .where(
+                                //     usernameEq(condition.getUsername()),
+                                //     teamNameEq(condition.getTeamName()),
+                                //     ageGoe(condition.getAgeGoe()),
+                                //     ageLoe(condition.getAgeLoe()))
+                                .where(checkMemberDtoAll(condition))
+                                .offset(pageable.getOffset())
+                                .limit(pageable.getPageSize())
+                                .fetch();
     // Long count = queryFactory.select(count(member)).from(member).where(checkMemberDtoAll(condition)).fetchOne();
-    JPAQuery<Long> countQuery = queryFactory.select(count(member)).from(member).where(checkMemberDtoAll(condition));
+    JPAQuery<Long> countQuery = select(count(member)).from(member).where(checkMemberDtoAll(condition));
 
     // 실행 방식
     // result.size() < pageable.getPageSize() → 즉 현재 페이지의 결과 수가 페이지 크기보다 작으면, 마지막 페이지이므로 카운트 쿼리를 실행하지 않고 페이지를 바로 만듭니다.
     // 그렇지 않으면 → 즉, 아직 뒤에 더 데이터가 있을 수 있다면 → countQuery::fetchOne 이 실행돼서 전체 개수를 계산합니다.
-    return PageableExecutionUtils.getPage(result, pageable, countQuery::fetchOne);
+    return PageableExecutionUtils.getPage(result, pageable, CountQueryTracker.track(countQuery::fetchOne));
 
     // return new PageImpl<>(result, pageable, count);
   }
 
+  // 한 건 더 읽어서 남는 행이 있으면 다음 페이지가 있는 것으로 본다.
+  @Override
+  public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+    List<MemberTeamDto> result = contentQuery(condition, pageable).limit(pageable.getPageSize() + 1L).fetch();
+
+    boolean hasNext = result.size() > pageable.getPageSize();
+    List<MemberTeamDto> content = hasNext ? result.subList(0, pageable.getPageSize()) : result;
+    return new SliceImpl<>(content, pageable, hasNext);
+  }
+
+  // 근사 전체 건수
+  // 조건이 넓으면(예: ageGoe 만) 매 페이지 요청마다 count 가 테이블 전체를 읽는다.
+  // 마지막 페이지라 전체 건수를 알 수 있는 경우가 아니면 count 쿼리를 실행하지 않고 추정값을 쓴다.
+  // 추정값을 구할 수 없으면(캐시도 통계도 없음) 정확한 count 를 실행하고, 그 값을 다음 요청의 추정값으로 남긴다.
+  // 가득 찬 페이지면 뒤에 행이 더 있을 수 있으므로 추정값이 작아도 이 페이지 + 1 건보다 작게 보여주지 않는다.
+  @Override
+  public ApproximatePage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+    List<MemberTeamDto> content = contentQuery(condition, pageable).fetch();
+    if (content.size() < pageable.getPageSize() && (!content.isEmpty() || pageable.getOffset() == 0)) {
+      return new ApproximatePage<>(content, pageable, pageable.getOffset() + content.size(), false);
+    }
+
+    Long estimate = countEstimator.estimate(condition, () -> countQuery(condition).fetchOne());
+    if (estimate != null) {
+      long atLeast = pageable.getOffset() + content.size() + (content.size() == pageable.getPageSize() ? 1 : 0);
+      return new ApproximatePage<>(content, pageable, Math.max(estimate, atLeast), true);
+    }
+    long count = CountQueryTracker.track(countQuery(condition)::fetchOne).getAsLong();
+    countEstimator.record(condition, count);
+    return new ApproximatePage<>(content, pageable, count, false);
+  }
+
+  // content / count 동시 실행
+  // 두 쿼리를 가상 쓰레드에서 각자의 읽기 전용 트랜잭션(= 각자의 EntityManager, 커넥션)으로 실행하므로
+  // 응답 시간이 두 쿼리 시간의 합이 아니라 느린 쪽 시간에 가까워진다.
+  // count 는 미리 시작해두지만, 전체 건수는 searchPageComplex 와 같은 PageableExecutionUtils 규칙으로 정한다.
+  // 그래서 count 를 생략하는 페이지(마지막 페이지, 한 페이지에 다 들어가는 결과)에서도 count 쿼리는 실행되고 결과만 버린다.
+  // 생략 여부는 content 를 받아봐야 알 수 있으므로 의도한 비용이다. 이때 count 가 훑는 행은 content 와 비슷하거나
+  // (첫 페이지) 조건 전체(마지막 페이지)다. 비용은 MemberSearchBenchmark.pageConcurrent* 로 잰다.
+  // repository.query 의 countSkipped 는 count 결과를 썼는지를 뜻한다.
+  // 바깥 읽기 전용 트랜잭션은 아무 쿼리도 실행하지 않으면서 커넥션만 하나 더 잡으므로 열지 않는다.
+  // (열면 호출 하나가 커넥션 3개를 쓰고, 동시 요청이 많으면 서로 커넥션을 기다리다 풀 타임아웃이 난다)
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable) {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    CompletableFuture<List<MemberTeamDto>> content = CompletableFuture.supplyAsync(
+        () -> readOnly.execute(status -> contentQuery(condition, pageable).fetch()), queryExecutor);
+    CompletableFuture<Long> count = CompletableFuture.supplyAsync(
+        () -> readOnly.execute(status -> countQuery(condition).fetchOne()), queryExecutor);
+
+    return PageableExecutionUtils.getPage(join(content), pageable, CountQueryTracker.track(() -> join(count)));
+  }
+
+  private JPAQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition, Pageable pageable) {
+    return select(new QMemberTeamDto(
+              member.id.as("memberId"),
+              member.username,
+              member.age,
+              team.id.as("teamId"),
+              team.name.as("teamName")))
+          .from(member)
+          .leftJoin(member.team, team)
+          .where(checkMemberDtoAll(condition))
+          .offset(pageable.getOffset())
+          .limit(pageable.getPageSize());
+  }
+
+  private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+    return select(count(member)).from(member).leftJoin(member.team, team).where(checkMemberDtoAll(condition));
+  }
+
+  // 동적 검색(/v1 ~ /v6)의 모든 쿼리에 QueryCostGuard 의 JDBC 타임아웃 힌트를 건다.
+  private <T> JPAQuery<T> select(Expression<T> expr) {
+    return queryCostGuard.withTimeout(queryFactory.select(expr));
+  }
+
+  // 비동기 작업에서 난 예외를 CompletionException 으로 감싸지 않고 그대로 던진다.
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  // 키셋(seek) 페이징
+  // offset 은 앞 페이지의 행을 전부 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+  // (age, member_id) 로 정렬하고 마지막으로 읽은 위치 이후만 조회하면 몇 번째 페이지든 비용이 같다.
+  // 다음 페이지 존재 여부는 size + 1 건을 읽어서 판단한다. (count 쿼리 없음)
+  @Override
+  public MemberKeysetSlice searchByKeyset(MemberSearchCondition condition, MemberCursor cursor, int size) {
+    Assert.isTrue(size > 0, "Size must be greater than zero!");
+    List<MemberTeamDto> result = select(new QMemberTeamDto(
+                                    member.id.as("memberId"),
+                                    member.username,
+                                    member.age,
+                                    team.id.as("teamId"),
+                                    team.name.as("teamName")))
+                                .from(member)
+                                .leftJoin(member.team, team)
+                                .where(checkMemberDtoAll(condition), afterCursor(cursor))
+                                .orderBy(member.age.asc(), member.id.asc())
+                                .limit(size + 1)
+                                .fetch();
+
+    boolean hasNext = result.size() > size;
+    List<MemberTeamDto> content = hasNext ? result.subList(0, size) : result;
+    String nextCursor = hasNext ? MemberCursor.of(content.get(content.size() - 1)).encode() : null;
+    return new MemberKeysetSlice(content, hasNext, nextCursor);
+  }
+
+  // (age, member_id) > (:age, :memberId)
+  private BooleanExpression afterCursor(MemberCursor cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    return member.age.gt(cursor.getAge())
+                     .or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getMemberId())));
+  }
+
   // StringUtils.hasText() -> 문자열이 null 이 아니고, 빈 문자열도 아니고, 공백으로만 이뤄지지 않는 경우 true
   // 따라서 바로 null 체크 하지 말고, hasText 사용.
   //
@@ -131,8 +306,16 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     return StringUtils.hasText(username) ? member.username.eq(username) : null;
   }
 
+  // team.name 조건을 outer join 된 team 에 걸면 DB 가 member 부터 전부 읽어야 한다.
+  // member.team_id in (select ... where name = ?) 로 바꾸면 team.name 인덱스 -> member(team_id, age) 인덱스 순서로 찾는다.
+  // member.team.id 는 이미 조인된 team 의 컬럼(t1_0.team_id)이 되어 member 인덱스를 쓰지 못하므로 member.teamId(FK 컬럼)와 비교한다.
+  // (outer join 한 team 은 select 절에서만 쓰이므로 count 쿼리에서는 join 이 빠진다)
   private BooleanExpression teamNameEq(String teamName) {
-    return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    return StringUtils.hasText(teamName)
+        ? member.teamId.in(JPAExpressions.select(teamByName.id)
+                                         .from(teamByName)
+                                         .where(teamByName.name.eq(teamName)))
+        : null;
   }
 
   private BooleanExpression ageGoe(Integer age) {
@@ -3,15 +3,19 @@ package study.querydsl.repository;
 import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.QueryCostGuard.isSelective;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
@@ -42,7 +46,8 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 
   public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
     return applyPagination(
-        pageable, contentQuery -> contentQuery.selectFrom(member).leftJoin(member.team, team).where(
+        pageable, isSelective(condition),
+        contentQuery -> contentQuery.selectFrom(member).leftJoin(member.team, team).where(
             usernameEq(condition.getUsername()),
             teamNameEq(condition.getTeamName()),
             ageGoe(condition.getAgeGoe()),
@@ -51,7 +56,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 
   public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
     return applyPagination(
-        pageable,
+        pageable, isSelective(condition),
         contentQuery -> contentQuery.selectFrom(member).leftJoin(member.team, team).where(
             usernameEq(condition.getUsername()),
             teamNameEq(condition.getTeamName()),
@@ -64,6 +69,48 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
             ageLoe(condition.getAgeLoe())));
   }
 
+  public Slice<Member> applySlice(MemberSearchCondition condition, Pageable pageable) {
+    return applySlice(
+        pageable, isSelective(condition),
+        contentQuery -> contentQuery.selectFrom(member).leftJoin(member.team, team).where(
+            usernameEq(condition.getUsername()),
+            teamNameEq(condition.getTeamName()),
+            ageGoe(condition.getAgeGoe()),
+            ageLoe(condition.getAgeLoe())));
+  }
+
+  // 지연 조인 페이징: 페이지의 id 를 먼저 구하고 member + team 을 id in (...) 으로 조회한다.
+  public Page<Member> applyDeferredPagination(MemberSearchCondition condition, Pageable pageable) {
+    return applyDeferredPagination(
+        pageable, isSelective(condition),
+        contentQuery -> contentQuery.from(member).leftJoin(member.team, team).where(
+            usernameEq(condition.getUsername()),
+            teamNameEq(condition.getTeamName()),
+            ageGoe(condition.getAgeGoe()),
+            ageLoe(condition.getAgeLoe())),
+        member.id,
+        ids -> selectFrom(member).leftJoin(member.team, team).fetchJoin().where(member.id.in(ids)).fetch(),
+        Member::getId);
+  }
+
+  public Page<MemberTeamDto> applyDeferredPaginationDto(MemberSearchCondition condition, Pageable pageable) {
+    return applyDeferredPagination(
+        pageable, isSelective(condition),
+        contentQuery -> contentQuery.from(member).leftJoin(member.team, team).where(
+            usernameEq(condition.getUsername()),
+            teamNameEq(condition.getTeamName()),
+            ageGoe(condition.getAgeGoe()),
+            ageLoe(condition.getAgeLoe())),
+        member.id,
+        ids -> select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName"))).from(member).leftJoin(member.team, team).where(member.id.in(ids)).fetch(),
+        MemberTeamDto::getMemberId);
+  }
+
   private BooleanExpression usernameEq(String username) {
     return isEmpty(username) ? null : member.username.eq(username);
   }
@@ -0,0 +1,104 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.view.MemberTeamViewSynchronizer;
+
+/**
+ * 팀 소속 변경
+ * <p>
+ * Team.members 컬렉션을 로딩하지 않고 연관관계 주인(Member.team)만 바꾼다.
+ * Team 은 프록시(getReference)로만 다루므로 team 조회도 없다.
+ * 이미 영속성 컨텍스트에 로딩된 Team.members 컬렉션은 Member.changeTeam 과 같이 맞춰 준다.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional
+public class TeamMembership {
+
+  // 한 번에 in (...) 에 넣는 member id 수
+  static final int MOVE_CHUNK_SIZE = 1_000;
+
+  private final EntityManager em;
+  private final JPAQueryFactory queryFactory;
+  private final MemberTeamViewSynchronizer viewSynchronizer;
+
+  // member 한 건: 변경 감지로 update member set ... where member_id = ?
+  public void move(Long memberId, Long teamId) {
+    Member found = em.find(Member.class, memberId);
+    if (found == null) {
+      throw new IllegalArgumentException("Member not found: " + memberId);
+    }
+    found.changeTeam(em.getReference(Team.class, teamId));
+  }
+
+  // 팀 인원은 컬렉션 size() 대신 count 쿼리로 센다.
+  @Transactional(readOnly = true)
+  public long countMembers(Long teamId) {
+    Long count = queryFactory.select(member.count())
+                             .from(member)
+                             .where(member.team.id.eq(teamId))
+                             .fetchOne();
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * memberIds 를 teamId 팀으로 옮긴다. MOVE_CHUNK_SIZE 개씩 update ... where member_id in (...) 한 문장으로 처리하고,
+   * 전체가 현재 트랜잭션 하나로 커밋된다. (나눠서 커밋하려면 MemberBulkOperations)
+   *
+   * @return 바뀐 행 수
+   */
+  public long moveAll(Collection<Long> memberIds, Long teamId) {
+    List<Long> ids = new ArrayList<>(new LinkedHashSet<>(memberIds));
+    Team target = em.getReference(Team.class, teamId);
+    long rows = 0;
+    for (int from = 0; from < ids.size(); from += MOVE_CHUNK_SIZE) {
+      List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MOVE_CHUNK_SIZE));
+      // member_team_view 는 전체 rebuild 대신 이 id 들만 다시 복사한다.
+      rows += viewSynchronizer.updateMembers(chunk, () -> queryFactory.update(member)
+                                                                     .set(member.team, target)
+                                                                     .where(member.id.in(chunk))
+                                                                     .execute());
+    }
+    syncPersistenceContext(ids, target);
+    return rows;
+  }
+
+  // 벌크 update 는 영속성 컨텍스트를 거치지 않으므로 이미 로딩된 member 와 Team.members 컬렉션만 맞춘다.
+  private void syncPersistenceContext(List<Long> ids, Team target) {
+    SessionImplementor session = em.unwrap(SessionImplementor.class);
+    EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+    for (Long id : ids) {
+      Object entity = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+      if (!(entity instanceof Member moved)) {
+        continue;
+      }
+      Team previous = moved.getTeam();
+      em.refresh(moved);
+      if (previous != null && membersLoaded(previous)) {
+        previous.getMembers().remove(moved);
+      }
+      if (membersLoaded(target) && !target.getMembers().contains(moved)) {
+        target.getMembers().add(moved);
+      }
+    }
+  }
+
+  private static boolean membersLoaded(Team team) {
+    return Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
+  }
+}
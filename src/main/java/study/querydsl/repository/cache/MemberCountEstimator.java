@@ -0,0 +1,125 @@
+package study.querydsl.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberSearchKey;
+
+/**
+ * 검색 조건별 전체 건수 추정
+ * <p>
+ * 조건별 정확한 count 결과를 캐시해 두고 그 값을 돌려준다. 값은 요청 쓰레드가 정확한 count 를 실행한 뒤
+ * {@link #record} 로 넣고, refresh-interval 보다 오래되면 queryExecutor 에서 별도 읽기 전용 트랜잭션으로
+ * count 를 다시 실행해서 갱신한다. (요청 쓰레드는 기다리지 않는다)
+ * 캐시에 없는 조건은 갱신하지 않는다. 어차피 요청 쓰레드가 정확한 count 를 실행하므로, 백그라운드 count 는
+ * 같은 쿼리를 한 번 더 실행할 뿐이고 처음 보는 조건마다 공유 queryExecutor 에 전체 count 가 쌓이게 된다.
+ * 아직 캐시된 값이 없으면 조건이 없는 경우에만 테이블 통계(table-statistics-query)의 전체 행 수를 돌려준다.
+ * 조건이 있으면 전체 행 수는 추정값이 아니므로 null 을 돌려준다. (통계를 읽을 수 없을 때도 null)
+ * <p>
+ * 쓰기가 있어도 캐시를 비우지 않으므로 건수는 최대 refresh-interval 만큼 늦을 수 있다.
+ */
+@Slf4j
+@Component
+public class MemberCountEstimator {
+
+  private final Cache<MemberSearchKey, CachedCount> counts;
+  private final Set<MemberSearchKey> refreshing = ConcurrentHashMap.newKeySet();
+  private final Duration refreshInterval;
+  private final String tableStatisticsQuery;
+  private final ExecutorService queryExecutor;
+  private final TransactionTemplate readOnly;
+  private final JdbcTemplate jdbcTemplate;
+
+  public MemberCountEstimator(ExecutorService queryExecutor, PlatformTransactionManager transactionManager,
+      DataSource dataSource,
+      @Value("${querydsl.count-estimate.maximum-size:10000}") long maximumSize,
+      @Value("${querydsl.count-estimate.refresh-interval:60s}") Duration refreshInterval,
+      @Value("${querydsl.count-estimate.table-statistics-query:"
+          + "select row_count_estimate from information_schema.tables where table_name = 'MEMBER'}")
+      String tableStatisticsQuery) {
+    this.counts = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    this.refreshInterval = refreshInterval;
+    this.tableStatisticsQuery = tableStatisticsQuery;
+    this.queryExecutor = queryExecutor;
+    this.readOnly = new TransactionTemplate(transactionManager);
+    this.readOnly.setReadOnly(true);
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  public Long estimate(MemberSearchCondition condition, Supplier<Long> exactCount) {
+    MemberSearchKey key = MemberSearchKey.of("count", condition, null);
+    CachedCount cached = counts.getIfPresent(key);
+    if (cached == null) {
+      return "none".equals(MemberSearchKey.predicateShape(condition)) ? tableEstimate() : null;
+    }
+    if (cached.isOlderThan(refreshInterval)) {
+      refreshAsync(key, exactCount);
+    }
+    return cached.count;
+  }
+
+  // estimate 가 null 이라서 요청 쓰레드가 실행한 정확한 count 를 다음 요청부터 쓴다.
+  public void record(MemberSearchCondition condition, long count) {
+    counts.put(MemberSearchKey.of("count", condition, null), new CachedCount(count, System.nanoTime()));
+  }
+
+  // 같은 조건의 갱신은 한 번에 하나만 실행한다.
+  private void refreshAsync(MemberSearchKey key, Supplier<Long> exactCount) {
+    if (!refreshing.add(key)) {
+      return;
+    }
+    try {
+      queryExecutor.execute(() -> {
+        try {
+          Long count = readOnly.execute(status -> exactCount.get());
+          counts.put(key, new CachedCount(count == null ? 0 : count, System.nanoTime()));
+        } catch (RuntimeException e) {
+          log.warn("count refresh failed: key={}", key, e);
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RuntimeException e) {
+      refreshing.remove(key);
+      throw e;
+    }
+  }
+
+  private Long tableEstimate() {
+    try {
+      return jdbcTemplate.queryForObject(tableStatisticsQuery, Long.class);
+    } catch (DataAccessException e) {
+      log.debug("table statistics unavailable: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  public void invalidateAll() {
+    counts.invalidateAll();
+  }
+
+  @RequiredArgsConstructor
+  private static class CachedCount {
+
+    private final long count;
+    private final long loadedAt;
+
+    boolean isOlderThan(Duration interval) {
+      return System.nanoTime() - loadedAt > interval.toNanos();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.repository.support.MemberSearchKey;
+
+/**
+ * 회원 검색 결과 캐시
+ * <p>
+ * 크기(maximum-size)와 TTL 로 제한하고, member / team 테이블이 바뀌면 {@link MemberSearchCacheInvalidator} 가 전체를 비운다.
+ * hit / miss / eviction 은 Actuator 의 cache.* 메트릭(cache=memberSearch)으로 노출된다.
+ */
+@Component
+public class MemberSearchCache {
+
+  public static final String NAME = "memberSearch";
+
+  private final Cache<MemberSearchKey, Object> cache;
+  // 무효화 세대: 조회 도중 무효화가 일어났다면 그 결과는 이미 오래된 값일 수 있으므로 캐시에 넣지 않는다.
+  private final AtomicLong generation = new AtomicLong();
+
+  public MemberSearchCache(MeterRegistry meterRegistry,
+      @Value("${querydsl.search-cache.maximum-size:10000}") long maximumSize,
+      @Value("${querydsl.search-cache.ttl:30s}") Duration ttl) {
+    this.cache = Caffeine.newBuilder()
+                         .maximumSize(maximumSize)
+                         .expireAfterWrite(ttl)
+                         .recordStats()
+                         .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+  }
+
+  // 읽기-쓰기 트랜잭션 안의 조회는 아직 커밋되지 않은(롤백될 수 있는) 자기 변경을 볼 수 있으므로 캐시를 거치지 않는다.
+  // (flush 시점의 무효화가 조회보다 먼저 일어나서 generation 검사로는 걸러지지 않는다)
+  @SuppressWarnings("unchecked")
+  public <T> T get(MemberSearchKey key, Supplier<T> loader) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return loader.get();
+    }
+    Object cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return (T) cached;
+    }
+    long observed = generation.get();
+    T value = loader.get();
+    if (value != null && generation.get() == observed) {
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.repository.cache;
+
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * member / team 테이블을 변경하는 SQL 을 감지해서 검색 캐시를 비운다.
+ * <p>
+ * 엔티티 persist, 변경 감지(changeTeam), Querydsl 벌크 update / delete 모두 결국 SQL 로 나가므로 SQL 단에서 한 번에 잡는다.
+ * 트랜잭션 안이라면 커밋 전에 다른 요청이 이전 값을 다시 캐시할 수 있으므로 트랜잭션 종료 후 한 번 더 비운다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchCacheInvalidator implements StatementInspector {
+
+  private static final Pattern MEMBER_OR_TEAM_WRITE = Pattern.compile(
+      "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert\\s+into|update|delete\\s+from|merge\\s+into|truncate\\s+table)\\s+(?:member|team)(?!\\w)",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private final MemberSearchCache searchCache;
+
+  @Override
+  public String inspect(String sql) {
+    if (MEMBER_OR_TEAM_WRITE.matcher(sql).find()) {
+      invalidate();
+    }
+    return sql;
+  }
+
+  private void invalidate() {
+    searchCache.invalidateAll();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    // 종료 시 무효화는 트랜잭션마다 한 번만 등록한다.
+    boolean registered = TransactionSynchronizationManager.getSynchronizations()
+                                                          .stream()
+                                                          .anyMatch(InvalidateOnCompletion.class::isInstance);
+    if (!registered) {
+      TransactionSynchronizationManager.registerSynchronization(new InvalidateOnCompletion());
+    }
+  }
+
+  private class InvalidateOnCompletion implements TransactionSynchronization {
+
+    @Override
+    public void afterCompletion(int status) {
+      searchCache.invalidateAll();
+    }
+  }
+}
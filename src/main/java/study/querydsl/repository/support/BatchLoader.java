@@ -0,0 +1,100 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.util.Assert;
+
+/**
+ * 키 단위 조회를 모아서 한 번에 실행한다. (DataLoader 방식)
+ * <p>
+ * load(key) 는 바로 future 를 돌려주고, 처음 요청 후 window 가 지나거나 maxBatchSize 개가 모이거나
+ * dispatch() 가 호출되면 모인 키 전체로 batchFunction 을 한 번 실행해서 각 future 를 완료한다.
+ * 같은 배치 안의 중복 키는 같은 future 를 받는다. 결과에 없는 키는 null 로 완료된다.
+ */
+public class BatchLoader<K, V> {
+
+  private final Function<List<K>, Map<K, V>> batchFunction;
+  private final Duration window;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+
+  private final Object lock = new Object();
+  private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+  private ScheduledFuture<?> scheduled;
+
+  public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize,
+      ScheduledExecutorService scheduler, Executor executor) {
+    Assert.isTrue(maxBatchSize > 0, "Max batch size must be greater than zero!");
+    this.batchFunction = batchFunction;
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.scheduler = scheduler;
+    this.executor = executor;
+  }
+
+  public CompletableFuture<V> load(K key) {
+    Assert.notNull(key, "Key must not be null!");
+    CompletableFuture<V> future;
+    Map<K, CompletableFuture<V>> full = null;
+    synchronized (lock) {
+      future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+      if (pending.size() >= maxBatchSize) {
+        full = drain();
+      } else if (scheduled == null) {
+        scheduled = scheduler.schedule(this::dispatch, window.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    if (full != null) {
+      submit(full);
+    }
+    return future;
+  }
+
+  // window 를 기다리지 않고 지금까지 모인 키를 실행한다. (요청 단위로 모은 뒤 한 번에 보낼 때)
+  public void dispatch() {
+    Map<K, CompletableFuture<V>> batch;
+    synchronized (lock) {
+      batch = drain();
+    }
+    if (!batch.isEmpty()) {
+      submit(batch);
+    }
+  }
+
+  private Map<K, CompletableFuture<V>> drain() {
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+    Map<K, CompletableFuture<V>> batch = pending;
+    pending = new LinkedHashMap<>();
+    return batch;
+  }
+
+  private void submit(Map<K, CompletableFuture<V>> batch) {
+    try {
+      executor.execute(() -> run(batch));
+    } catch (RuntimeException e) {
+      batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+  }
+
+  private void run(Map<K, CompletableFuture<V>> batch) {
+    try {
+      Map<K, V> result = batchFunction.apply(new ArrayList<>(batch.keySet()));
+      batch.forEach((key, future) -> future.complete(result.get(key)));
+    } catch (Throwable e) {
+      batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+  }
+}
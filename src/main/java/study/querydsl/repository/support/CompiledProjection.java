@@ -0,0 +1,38 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+import java.util.List;
+
+/**
+ * {@link CompiledProjections} 가 만든 projection
+ * <p>
+ * Querydsl select(...) 에 그대로 넣을 수 있다. 행마다 미리 컴파일해 둔 {@link CompiledProjections.RowMapper} 만 호출한다.
+ */
+public class CompiledProjection<T> extends FactoryExpressionBase<T> {
+
+  private final List<Expression<?>> args;
+  private final CompiledProjections.RowMapper<T> mapper;
+
+  CompiledProjection(Class<? extends T> type, List<Expression<?>> args, CompiledProjections.RowMapper<T> mapper) {
+    super(type);
+    this.args = args;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public List<Expression<?>> getArgs() {
+    return args;
+  }
+
+  @Override
+  public T newInstance(Object... args) {
+    return mapper.map(args);
+  }
+
+  @Override
+  public <R, C> R accept(Visitor<R, C> v, C context) {
+    return v.visit(this, context);
+  }
+}
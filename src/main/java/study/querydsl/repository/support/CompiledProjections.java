@@ -0,0 +1,249 @@
+package study.querydsl.repository.support;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Projections.bean / fields / constructor 대신 쓰는 projection
+ * <p>
+ * Projections 는 행마다 리플렉션(Constructor.newInstance, Method.invoke, Field.set)으로 DTO 를 만든다.
+ * 여기서는 DTO 타입 + 별칭 목록(생성자는 인자 타입 목록)마다 한 번만 행 매퍼를 만들어서 캐시한다.
+ * <ul>
+ *   <li>bean: 기본 생성자와 setter 를 LambdaMetafactory 로 Supplier / BiConsumer 구현체로 만든다.</li>
+ *   <li>fields: 필드 setter MethodHandle</li>
+ *   <li>constructor: 생성자 MethodHandle (인자 배열을 펼쳐서 호출, primitive 인자의 null 은 기본값)</li>
+ * </ul>
+ * 별칭 규칙은 Projections 와 같다. (Path 이름 또는 as("name"), DTO 에 없는 이름은 무시)
+ *
+ * <pre>
+ * queryFactory.select(CompiledProjections.fields(UserDto.class, member.username.as("name"), member.age))
+ * </pre>
+ */
+public final class CompiledProjections {
+
+  private static final Map<MapperKey, RowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+  private CompiledProjections() {
+  }
+
+  public static <T> CompiledProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+    return named(Kind.BEAN, type, exprs);
+  }
+
+  public static <T> CompiledProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+    return named(Kind.FIELDS, type, exprs);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> CompiledProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+    List<Class<?>> argTypes = Arrays.stream(exprs).<Class<?>>map(Expression::getType).toList();
+    RowMapper<T> mapper = (RowMapper<T>) MAPPERS.computeIfAbsent(
+        new MapperKey(Kind.CONSTRUCTOR, type, argTypes),
+        key -> compileConstructor(type, argTypes));
+    return new CompiledProjection<>(type, List.of(exprs), mapper);
+  }
+
+  // 캐시된 행 매퍼 수
+  static int cacheSize() {
+    return MAPPERS.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> CompiledProjection<T> named(Kind kind, Class<? extends T> type, Expression<?>... exprs) {
+    List<String> names = new ArrayList<>(exprs.length);
+    List<Expression<?>> args = new ArrayList<>(exprs.length);
+    for (Expression<?> expr : exprs) {
+      if (expr instanceof Path<?> path) {
+        names.add(path.getMetadata().getName());
+        args.add(expr);
+      } else if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS
+          && operation.getArg(1) instanceof Path<?> alias) {
+        names.add(alias.getMetadata().getName());
+        args.add(operation.getArg(0));
+      } else {
+        throw new IllegalArgumentException("Unsupported expression " + expr);
+      }
+    }
+    RowMapper<T> mapper = (RowMapper<T>) MAPPERS.computeIfAbsent(
+        new MapperKey(kind, type, List.copyOf(names)),
+        key -> compileNamed(kind, type, names));
+    return new CompiledProjection<>(type, List.copyOf(args), mapper);
+  }
+
+  private static <T> RowMapper<T> compileNamed(Kind kind, Class<? extends T> type, List<String> names) {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+      Supplier<Object> factory = factory(lookup, type);
+      List<BiConsumer<Object, Object>> setters = new ArrayList<>(names.size());
+      boolean[] primitives = new boolean[names.size()];
+      for (int i = 0; i < names.size(); i++) {
+        Field field = ReflectionUtils.findField(type, names.get(i));
+        primitives[i] = field != null && field.getType().isPrimitive();
+        setters.add(kind == Kind.BEAN ? beanSetter(lookup, type, names.get(i), field) : fieldSetter(lookup, field));
+      }
+      return args -> {
+        Object bean = factory.get();
+        for (int i = 0; i < args.length; i++) {
+          BiConsumer<Object, Object> setter = setters.get(i);
+          // 없는 속성은 무시하고, primitive 에 null 은 기본값으로 둔다.
+          if (setter != null && (args[i] != null || !primitives[i])) {
+            setter.accept(bean, args[i]);
+          }
+        }
+        return type.cast(bean);
+      };
+    } catch (Throwable e) {
+      throw new ExpressionException("Cannot compile projection for " + type.getName() + " " + names, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Supplier<Object> factory(MethodHandles.Lookup lookup, Class<?> type) throws Throwable {
+    MethodHandle constructor = lookup.findConstructor(type, methodType(void.class));
+    return (Supplier<Object>) LambdaMetafactory.metafactory(
+        lookup, "get", methodType(Supplier.class), methodType(Object.class), constructor, methodType(type))
+                                               .getTarget()
+                                               .invoke();
+  }
+
+  // setX(value) 를 BiConsumer 구현체로 만든다. setter 가 없으면 null
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> beanSetter(MethodHandles.Lookup lookup, Class<?> type, String name,
+      Field field) throws Throwable {
+    if (field == null) {
+      return null;
+    }
+    Method method = ReflectionUtils.findMethod(type, "set" + Character.toUpperCase(name.charAt(0))
+        + name.substring(1), field.getType());
+    if (method == null || Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    MethodHandle setter = lookup.unreflect(method);
+    MethodType instantiated = methodType(void.class, type, ClassUtils.resolvePrimitiveIfNecessary(field.getType()));
+    return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(
+        lookup, "accept", methodType(BiConsumer.class), methodType(void.class, Object.class, Object.class),
+        setter, instantiated).getTarget().invoke();
+  }
+
+  private static BiConsumer<Object, Object> fieldSetter(MethodHandles.Lookup lookup, Field field) throws Throwable {
+    if (field == null || Modifier.isStatic(field.getModifiers())) {
+      return null;
+    }
+    MethodHandle setter = lookup.unreflectSetter(field).asType(methodType(void.class, Object.class, Object.class));
+    return (bean, value) -> {
+      try {
+        setter.invokeExact(bean, value);
+      } catch (Throwable e) {
+        throw new ExpressionException("Cannot set " + field.getName(), e);
+      }
+    };
+  }
+
+  private static <T> RowMapper<T> compileConstructor(Class<? extends T> type, List<Class<?>> argTypes) {
+    try {
+      Constructor<?> constructor = findConstructor(type, argTypes);
+      MethodHandle handle = MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+                                         .unreflectConstructor(constructor)
+                                         .asSpreader(Object[].class, argTypes.size())
+                                         .asType(methodType(Object.class, Object[].class));
+      // primitive 인자에 null 이 오면(outer join 등) Projections.constructor 처럼 기본값(0, false)을 넘긴다.
+      Class<?>[] parameters = constructor.getParameterTypes();
+      Object[] defaults = new Object[parameters.length];
+      for (int i = 0; i < parameters.length; i++) {
+        if (parameters[i].isPrimitive()) {
+          defaults[i] = Array.get(Array.newInstance(parameters[i], 1), 0);
+        }
+      }
+      boolean substitute = Arrays.stream(parameters).anyMatch(Class::isPrimitive);
+      return args -> {
+        Object[] values = substitute ? withDefaults(args, defaults) : args;
+        try {
+          return type.cast(handle.invokeExact(values));
+        } catch (Throwable e) {
+          throw new ExpressionException("Cannot create " + type.getName(), e);
+        }
+      };
+    } catch (ReflectiveOperationException e) {
+      throw new ExpressionException("Cannot compile projection for " + type.getName() + " " + argTypes, e);
+    }
+  }
+
+  private static Object[] withDefaults(Object[] args, Object[] defaults) {
+    Object[] values = args;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i] == null && defaults[i] != null) {
+        if (values == args) {
+          values = args.clone();
+        }
+        values[i] = defaults[i];
+      }
+    }
+    return values;
+  }
+
+  // 인자 수가 같고, 각 인자 타입이 (박싱을 고려해서) 대입 가능한 생성자
+  private static Constructor<?> findConstructor(Class<?> type, List<Class<?>> argTypes)
+      throws NoSuchMethodException {
+    for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+      Class<?>[] parameters = constructor.getParameterTypes();
+      if (parameters.length != argTypes.size()) {
+        continue;
+      }
+      boolean matches = true;
+      for (int i = 0; i < parameters.length && matches; i++) {
+        matches = ClassUtils.isAssignable(parameters[i], argTypes.get(i));
+      }
+      if (matches) {
+        return constructor;
+      }
+    }
+    throw new NoSuchMethodException(type.getName() + ".<init>" + argTypes);
+  }
+
+  @FunctionalInterface
+  interface RowMapper<T> {
+
+    T map(Object[] args);
+  }
+
+  private enum Kind {
+    BEAN,
+    FIELDS,
+    CONSTRUCTOR
+  }
+
+  // 생성자는 인자 타입 목록, bean / fields 는 별칭 목록이 shape
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static class MapperKey {
+
+    private final Kind kind;
+    private final Class<?> type;
+    private final List<?> shape;
+  }
+}
@@ -0,0 +1,232 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * content 쿼리에서 count 쿼리를 만든다.
+ * <p>
+ * deprecated 된 fetchCount() 는 content 쿼리를 통째로 감싸서 count 를 구한다.
+ * 여기서는 where / group by 만 남기고 다음을 제거한 뒤 select count(...) 를 직접 실행한다.
+ * <ul>
+ *   <li>order by, offset / limit</li>
+ *   <li>fetch join 의 fetch (join 자체는 건수에 영향을 줄 수 있으므로 남긴다)</li>
+ *   <li>조건에서 참조하지 않는 *ToOne left join (행 수가 달라지지 않는다)</li>
+ * </ul>
+ * group by 쿼리는 그룹 키, distinct 쿼리는 projection 을 from 절 서브쿼리로 감싸서 DB 에서 센다.
+ * 예) select count(*) from (select team.name from ... group by team.name)
+ */
+public final class CountQueryBuilder {
+
+  private CountQueryBuilder() {
+  }
+
+  public static LongSupplier count(EntityManager em, JPAQuery<?> contentQuery) {
+    QueryMetadata source = contentQuery.getMetadata();
+    QueryMetadata metadata = countMetadata(source);
+    Expression<?> root = source.getJoins().get(0).getTarget();
+
+    // 그룹 수: null 키 그룹과 having 도 그대로 반영된다.
+    if (!source.getGroupBy().isEmpty()) {
+      return countRows(em, metadata, source.getGroupBy());
+    }
+    // 서로 다른 projection 수: select distinct member.age 는 member 수가 아니라 나이 종류 수
+    Expression<?> projection = source.getProjection();
+    if (source.isDistinct() && projection != null && !projection.equals(root)) {
+      metadata.setDistinct(true);
+      return countRows(em, metadata,
+          projection instanceof FactoryExpression<?> factory ? factory.getArgs() : List.of(projection));
+    }
+
+    Ops.AggOps count = source.isDistinct() ? Ops.AggOps.COUNT_DISTINCT_AGG : Ops.AggOps.COUNT_AGG;
+    JPAQuery<Long> countQuery = new JPAQuery<>(em, metadata).select(Expressions.numberOperation(Long.class, count, root));
+    return () -> {
+      Long result = countQuery.fetchOne();
+      return result == null ? 0 : result;
+    };
+  }
+
+  // select count(*) from (select columns ...) 로 센다. Hibernate 6 HQL 은 from 절 서브쿼리를 지원하지만
+  // 서브쿼리의 select 항목마다 alias 가 있어야 한다. (select team.name as c0, ...)
+  private static LongSupplier countRows(EntityManager em, QueryMetadata metadata, List<Expression<?>> columns) {
+    Expression<?>[] aliased = new Expression<?>[columns.size()];
+    for (int i = 0; i < aliased.length; i++) {
+      aliased[i] = ExpressionUtils.as(columns.get(i), "c" + i);
+    }
+    metadata.setProjection(aliased.length == 1 ? aliased[0] : Projections.tuple(aliased));
+    JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+    serializer.serialize(metadata, false, null);
+    String countQuery = "select count(*) from (" + serializer + ") counted";
+    List<Object> constants = serializer.getConstants();
+    return () -> {
+      TypedQuery<Long> query = em.createQuery(countQuery, Long.class);
+      JPAUtil.setConstants(query, constants, metadata.getParams());
+      Long result = query.getSingleResult();
+      return result == null ? 0 : result;
+    };
+  }
+
+  // order by / offset / limit / projection 을 뺀 메타데이터, 불필요한 join 은 제거
+  static QueryMetadata countMetadata(QueryMetadata source) {
+    Set<Expression<?>> referenced = new HashSet<>();
+    collect(source.getWhere(), referenced);
+    collect(source.getHaving(), referenced);
+    source.getGroupBy().forEach(expr -> collect(expr, referenced));
+    // distinct 는 projection 을 그대로 세므로 projection 이 쓰는 join 도 남긴다.
+    if (source.isDistinct()) {
+      collect(source.getProjection(), referenced);
+    }
+
+    // 뒤쪽 join 이 앞쪽 alias 를 참조할 수 있으므로 뒤에서부터 판단한다.
+    List<JoinExpression> joins = source.getJoins();
+    List<JoinExpression> kept = new ArrayList<>();
+    for (int i = joins.size() - 1; i >= 0; i--) {
+      JoinExpression join = joins.get(i);
+      if (i > 0 && isDroppable(join, referenced)) {
+        continue;
+      }
+      kept.add(join);
+      collect(join.getTarget(), referenced);
+      collect(join.getCondition(), referenced);
+    }
+    Collections.reverse(kept);
+
+    QueryMetadata metadata = new DefaultQueryMetadata();
+    for (JoinExpression join : kept) {
+      metadata.addJoin(join.getType(), join.getTarget());
+      if (join.getCondition() != null) {
+        metadata.addJoinCondition(join.getCondition());
+      }
+      for (JoinFlag flag : join.getFlags()) {
+        if (!flag.equals(JPAQueryMixin.FETCH) && !flag.equals(JPAQueryMixin.FETCH_ALL_PROPERTIES)) {
+          metadata.addJoinFlag(flag);
+        }
+      }
+    }
+    if (source.getWhere() != null) {
+      metadata.addWhere(source.getWhere());
+    }
+    source.getGroupBy().forEach(metadata::addGroupBy);
+    if (source.getHaving() != null) {
+      metadata.addHaving(source.getHaving());
+    }
+    copyParams(source, metadata);
+    return metadata;
+  }
+
+  // left join member.team team 처럼 *ToOne 연관관계를 alias 로 조인했고, 그 alias 를 아무도 참조하지 않으면 제거 가능
+  private static boolean isDroppable(JoinExpression join, Set<Expression<?>> referenced) {
+    if (join.getType() != JoinType.LEFTJOIN) {
+      return false;
+    }
+    if (!(join.getTarget() instanceof Operation<?> operation) || operation.getOperator() != Ops.ALIAS) {
+      return false;
+    }
+    Expression<?> association = operation.getArg(0);
+    Expression<?> alias = operation.getArg(1);
+    return !(association instanceof CollectionExpression) && !referenced.contains(alias);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static void copyParams(QueryMetadata source, QueryMetadata target) {
+    for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+      target.setParam((ParamExpression) param.getKey(), param.getValue());
+    }
+  }
+
+  private static void collect(Expression<?> expr, Set<Expression<?>> referenced) {
+    if (expr != null) {
+      expr.accept(RootPathCollector.INSTANCE, referenced);
+    }
+  }
+
+  /**
+   * 식에서 사용하는 경로의 루트(alias)를 모은다. 예) team.name -> team
+   */
+  private enum RootPathCollector implements Visitor<Void, Set<Expression<?>>> {
+
+    INSTANCE;
+
+    @Override
+    public Void visit(Constant<?> expr, Set<Expression<?>> context) {
+      return null;
+    }
+
+    @Override
+    public Void visit(FactoryExpression<?> expr, Set<Expression<?>> context) {
+      expr.getArgs().forEach(arg -> arg.accept(this, context));
+      return null;
+    }
+
+    @Override
+    public Void visit(Operation<?> expr, Set<Expression<?>> context) {
+      expr.getArgs().forEach(arg -> arg.accept(this, context));
+      return null;
+    }
+
+    @Override
+    public Void visit(ParamExpression<?> expr, Set<Expression<?>> context) {
+      return null;
+    }
+
+    @Override
+    public Void visit(Path<?> expr, Set<Expression<?>> context) {
+      context.add(expr.getRoot());
+      return null;
+    }
+
+    @Override
+    public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> context) {
+      QueryMetadata metadata = expr.getMetadata();
+      for (JoinExpression join : metadata.getJoins()) {
+        collect(join.getTarget(), context);
+        collect(join.getCondition(), context);
+      }
+      collect(metadata.getWhere(), context);
+      collect(metadata.getHaving(), context);
+      collect(metadata.getProjection(), context);
+      return null;
+    }
+
+    @Override
+    public Void visit(TemplateExpression<?> expr, Set<Expression<?>> context) {
+      for (Object arg : expr.getArgs()) {
+        if (arg instanceof Expression<?> argExpr) {
+          argExpr.accept(this, context);
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package study.querydsl.repository.support;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 조회에서 count 쿼리가 실제로 실행됐는지 현재 쓰레드에 기록한다.
+ * <p>
+ * PageableExecutionUtils 는 마지막 페이지 등에서 count 쿼리를 생략하는데, 밖에서는 생략 여부를 알 수 없으므로
+ * count 쿼리를 {@link #track(LongSupplier)} 로 감싸서 넘긴다. {@link RepositoryMetrics} 가 호출 단위로 읽어간다.
+ */
+public final class CountQueryTracker {
+
+  private static final ThreadLocal<Boolean> EXECUTED = new ThreadLocal<>();
+
+  private CountQueryTracker() {
+  }
+
+  public static LongSupplier track(LongSupplier countQuery) {
+    return () -> {
+      markExecuted();
+      return countQuery.getAsLong();
+    };
+  }
+
+  public static void markExecuted() {
+    EXECUTED.set(Boolean.TRUE);
+  }
+
+  // 호출 시작: 이전 상태를 돌려주고 초기화
+  static Boolean begin() {
+    Boolean previous = EXECUTED.get();
+    EXECUTED.set(Boolean.FALSE);
+    return previous;
+  }
+
+  // 호출 종료: 이번 호출에서 count 쿼리가 실행됐는지 돌려주고 바깥 호출 상태를 복원
+  static boolean end(Boolean previous) {
+    boolean executed = Boolean.TRUE.equals(EXECUTED.get());
+    if (previous == null) {
+      EXECUTED.remove();
+    } else {
+      EXECUTED.set(previous || executed);
+    }
+    return executed;
+  }
+}
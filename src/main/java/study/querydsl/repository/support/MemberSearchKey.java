@@ -0,0 +1,59 @@
+package study.querydsl.repository.support;
+
+import java.util.StringJoiner;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 검색 조건 + 페이지 정보를 정규화한 불변 키
+ * <p>
+ * MemberSearchCondition 은 변경 가능한 객체라 그대로 키로 쓰지 않고 값을 복사한다.
+ * 빈 문자열 조건은 checkMemberDtoAll 에서 무시되므로 null 과 같은 키로 취급한다.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberSearchKey {
+
+  private final String operation;
+  private final String username;
+  private final String teamName;
+  private final Integer ageGoe;
+  private final Integer ageLoe;
+  private final Pageable pageable;
+
+  public static MemberSearchKey of(String operation, MemberSearchCondition condition, Pageable pageable) {
+    return new MemberSearchKey(
+        operation,
+        StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null,
+        StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+        condition.getAgeGoe(),
+        condition.getAgeLoe(),
+        pageable);
+  }
+
+  // 사용 중인 조건 이름 조합 (예: "username+ageGoe", 조건이 없으면 "none"), 메트릭 태그로 쓴다.
+  public static String predicateShape(MemberSearchCondition condition) {
+    StringJoiner shape = new StringJoiner("+");
+    if (StringUtils.hasText(condition.getUsername())) {
+      shape.add("username");
+    }
+    if (StringUtils.hasText(condition.getTeamName())) {
+      shape.add("teamName");
+    }
+    if (condition.getAgeGoe() != null) {
+      shape.add("ageGoe");
+    }
+    if (condition.getAgeLoe() != null) {
+      shape.add("ageLoe");
+    }
+    return shape.length() == 0 ? "none" : shape.toString();
+  }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 동적 검색 비용 제한
+ * <p>
+ * 조건이 모두 비어 있으면 checkMemberDtoAll 은 빈 조건을 만들고, 큰 페이지 크기와 만나면 전체 스캔 + 전체 count 가 된다.
+ * 리포지토리를 호출하기 전에 다음을 확인한다.
+ * <ul>
+ *   <li>페이지 크기: max-page-size 로 줄인다.</li>
+ *   <li>정렬: sortable-properties 에 없는 속성이면 거절한다.</li>
+ *   <li>선택적인 조건이 없으면: require-selective-predicate 면 거절, 아니면 앞쪽 unselective-max-rows 행까지만 허용한다.</li>
+ * </ul>
+ * 거절 / 조정된 요청은 로그와 query.guard 카운터(operation, outcome, reason)로 남긴다.
+ * JDBC 쿼리 타임아웃은 {@link #withTimeout(JPAQuery)} 로 쿼리에 힌트를 건다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryCostGuard {
+
+  private static final String SELECTIVE_REQUIRED = "a selective predicate (username, teamName or ageGoe + ageLoe) is required";
+
+  private final QueryGuardProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  // username, teamName 은 등호 조건이고, age 는 양쪽 범위가 모두 있어야 선택적이라고 본다.
+  public static boolean isSelective(MemberSearchCondition condition) {
+    return StringUtils.hasText(condition.getUsername())
+        || StringUtils.hasText(condition.getTeamName())
+        || (condition.getAgeGoe() != null && condition.getAgeLoe() != null);
+  }
+
+  // 목록(페이지 없음) 검색
+  public void checkSearch(String operation, MemberSearchCondition condition) {
+    if (!properties.isEnabled() || isSelective(condition)) {
+      return;
+    }
+    if (properties.isRequireSelectivePredicate()) {
+      throw reject(operation, "unselective", SELECTIVE_REQUIRED);
+    }
+  }
+
+  public Pageable checkPage(String operation, MemberSearchCondition condition, Pageable pageable) {
+    return checkPage(operation, isSelective(condition), pageable);
+  }
+
+  // 조건을 MemberSearchCondition 으로 받지 않는 곳(Querydsl4RepositorySupport)은 호출한 쪽이 isSelective 결과를 넘긴다.
+  public Pageable checkPage(String operation, boolean selective, Pageable pageable) {
+    if (!properties.isEnabled() || pageable.isUnpaged()) {
+      return pageable;
+    }
+    for (Sort.Order order : pageable.getSort()) {
+      if (!properties.getSortableProperties().contains(order.getProperty())) {
+        throw reject(operation, "sort", "sort on '" + order.getProperty() + "' is not allowed, allowed: "
+            + properties.getSortableProperties());
+      }
+    }
+
+    Pageable checked = pageable;
+    if (pageable.getPageSize() > properties.getMaxPageSize()) {
+      checked = PageRequest.of(pageable.getPageNumber(), properties.getMaxPageSize(), pageable.getSort());
+      count(operation, "capped", "pageSize");
+      log.info("query guard capped page size: operation={}, requested={}, max={}",
+          operation, pageable.getPageSize(), properties.getMaxPageSize());
+    }
+
+    if (!selective) {
+      if (properties.isRequireSelectivePredicate()) {
+        throw reject(operation, "unselective", SELECTIVE_REQUIRED);
+      }
+      if (checked.getOffset() + checked.getPageSize() > properties.getUnselectiveMaxRows()) {
+        throw reject(operation, "unselective", "without a selective predicate only the first "
+            + properties.getUnselectiveMaxRows() + " rows can be paged");
+      }
+    }
+    return checked;
+  }
+
+  public <T> JPAQuery<T> withTimeout(JPAQuery<T> query) {
+    if (properties.isEnabled() && !properties.getTimeout().isZero()) {
+      query.setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, (int) properties.getTimeout().toMillis());
+    }
+    return query;
+  }
+
+  private QueryRejectedException reject(String operation, String reason, String message) {
+    count(operation, "rejected", reason);
+    log.warn("query guard rejected search: operation={}, reason={}, {}", operation, reason, message);
+    return new QueryRejectedException(message);
+  }
+
+  private void count(String operation, String outcome, String reason) {
+    Counter.builder("query.guard")
+           .tag("operation", operation)
+           .tag("outcome", outcome)
+           .tag("reason", reason)
+           .register(meterRegistry)
+           .increment();
+  }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.repository.support;
+
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link QueryExecutionEvent} 기록 스위치
+ * <p>
+ * 꺼져 있으면 조회마다 volatile 읽기 한 번만 한다. 켜져 있어도 JFR 녹화에서 이벤트가 활성화된 경우에만 SQL 모양을 모은다.
+ * 실행 중 변경: POST /actuator/queryevents {"enabled": true}
+ */
+@Slf4j
+@Component
+@Endpoint(id = "queryevents")
+public class QueryEventSwitch {
+
+  private volatile boolean enabled;
+
+  public QueryEventSwitch(@Value("${querydsl.jfr.enabled:false}") boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @ReadOperation
+  public Map<String, Object> status() {
+    return Map.of(
+        "enabled", enabled,
+        "event", QueryExecutionEvent.NAME,
+        "recording", new QueryExecutionEvent().isEnabled());
+  }
+
+  @WriteOperation
+  public Map<String, Object> change(boolean enabled) {
+    setEnabled(enabled);
+    log.info("{} events {}", QueryExecutionEvent.NAME, enabled ? "enabled" : "disabled");
+    return status();
+  }
+
+  // 기록할 이벤트를 시작한다. 꺼져 있거나 녹화 중이 아니면 null
+  QueryExecutionEvent begin() {
+    if (!enabled) {
+      return null;
+    }
+    QueryExecutionEvent event = new QueryExecutionEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.repository.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 리포지토리 조회 한 번을 JDK Flight Recorder 이벤트로 남긴다. ({@link RepositoryMetrics})
+ * <p>
+ * 같은 녹화 파일의 GC / 락 / 소켓 이벤트와 시간축으로 맞춰 볼 수 있다.
+ * 조건 값은 남기지 않고 사용한 조건 이름 조합(predicates)만 남긴다.
+ * 녹화 설정의 threshold 를 주면(예: 20 ms) 느린 조회만 기록된다.
+ */
+@Name(QueryExecutionEvent.NAME)
+@Label("Repository Query")
+@Category({"Querydsl", "Repository"})
+@Description("Repository method execution with its statement shapes")
+@StackTrace(false)
+public class QueryExecutionEvent extends Event {
+
+  public static final String NAME = "study.querydsl.QueryExecution";
+
+  @Label("Repository")
+  String repository;
+
+  @Label("Method")
+  String method;
+
+  @Label("Predicates")
+  @Description("Active MemberSearchCondition fields, e.g. teamName+ageGoe")
+  String predicates;
+
+  @Label("Statement Shape")
+  @Description("Normalized SQL executed by the call, in order")
+  String statementShape;
+
+  @Label("Statements")
+  int statements;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Page Size")
+  int pageSize;
+
+  @Label("Count Query Skipped")
+  @Description("true / false for page queries, n/a otherwise")
+  String countQuerySkipped;
+
+  @Label("Exception")
+  String exception;
+}
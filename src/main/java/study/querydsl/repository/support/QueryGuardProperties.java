@@ -0,0 +1,27 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("querydsl.query-guard")
+public class QueryGuardProperties {
+
+  private boolean enabled = true;
+  // 이보다 큰 페이지 요청은 이 크기로 줄인다.
+  private int maxPageSize = 100;
+  // true 면 선택적인 조건(username, teamName, age 범위 양쪽)이 없는 검색은 거절한다.
+  private boolean requireSelectivePredicate = false;
+  // 선택적인 조건이 없는 페이지 검색은 앞쪽 이 행 수까지만 허용한다.
+  private int unselectiveMaxRows = 1_000;
+  // 0 이면 설정하지 않음
+  private Duration timeout = Duration.ofSeconds(3);
+  // 인덱스가 있는 정렬 속성만 허용한다.
+  private Set<String> sortableProperties = new LinkedHashSet<>(List.of("id", "age", "username"));
+}
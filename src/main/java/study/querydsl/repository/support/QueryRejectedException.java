@@ -0,0 +1,13 @@
+package study.querydsl.repository.support;
+
+/**
+ * {@link QueryCostGuard} 가 비용이 큰 검색을 거절할 때 던진다.
+ * <p>
+ * IllegalArgumentException 은 @Repository 예외 변환에서 InvalidDataAccessApiUsageException 으로 바뀌므로 상속하지 않는다.
+ */
+public class QueryRejectedException extends RuntimeException {
+
+  public QueryRejectedException(String message) {
+    super(message);
+  }
+}
@@ -3,15 +3,22 @@ package study.querydsl.repository.support;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
@@ -33,6 +40,7 @@ public abstract class Querydsl4RepositorySupport {
   private Querydsl querydsl;
   private EntityManager entityManager;
   private JPAQueryFactory queryFactory;
+  private QueryCostGuard queryCostGuard;
 
   public Querydsl4RepositorySupport(Class<?> domainClass) {
     Assert.notNull(domainClass, "Domain class must not be null!");
@@ -71,6 +79,22 @@ public abstract class Querydsl4RepositorySupport {
     this.queryFactory = new JPAQueryFactory(entityManager);
   }
 
+  @Autowired(required = false)
+  public void setQueryCostGuard(QueryCostGuard queryCostGuard) {
+    this.queryCostGuard = queryCostGuard;
+  }
+
+  // 페이지 크기 / 정렬 / 조건 없는 검색을 QueryCostGuard 로 확인하고, content 쿼리에 타임아웃 힌트를 건다.
+  // where 절이 있어도 넓은 범위(ageGoe 만 등)일 수 있으므로 선택적인지는 호출한 쪽이 넘긴다.
+  // (예: QueryCostGuard.isSelective(condition))
+  private Pageable guard(String operation, Pageable pageable, boolean selective, JPAQuery<?> query) {
+    if (queryCostGuard == null) {
+      return pageable;
+    }
+    queryCostGuard.withTimeout(query);
+    return queryCostGuard.checkPage(domainClass.getSimpleName() + "." + operation, selective, pageable);
+  }
+
   protected <T> JPAQuery<T> select(Expression<T> expr) {
     return getQueryFactory().select(expr);
   }
@@ -79,17 +103,99 @@ public abstract class Querydsl4RepositorySupport {
     return getQueryFactory().selectFrom(from);
   }
 
+  // selective 를 넘기지 않으면 선택적인 조건이 없는 검색으로 보고 제한한다.
   protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
-    JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-    List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-    return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+    return applyPagination(pageable, false, contentQuery);
   }
 
   protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery,
       Function<JPAQueryFactory, JPAQuery> countQuery) {
+    return applyPagination(pageable, false, contentQuery, countQuery);
+  }
+
+  protected <T> Slice<T> applySlice(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+    return applySlice(pageable, false, contentQuery);
+  }
+
+  protected <T, ID> Page<T> applyDeferredPagination(Pageable pageable,
+      Function<JPAQueryFactory, JPAQuery> contentQuery, Expression<ID> id, Function<List<ID>, List<T>> loader,
+      Function<T, ID> idOf) {
+    return applyDeferredPagination(pageable, false, contentQuery, id, loader, idOf);
+  }
+
+  // count 쿼리는 페이징(order by, offset, limit)이 붙기 전의 content 쿼리에서 만든다.
+  // selective: 선택적인 조건이 있는지 (QueryCostGuard 가 조건 없는 검색의 페이지 범위를 제한한다)
+  protected <T> Page<T> applyPagination(Pageable pageable, boolean selective,
+      Function<JPAQueryFactory, JPAQuery> contentQuery) {
+    JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+    Pageable checked = guard("applyPagination", pageable, selective, jpaQuery);
+    LongSupplier count = createCountQuery(jpaQuery);
+    List<T> content = getQuerydsl().applyPagination(checked, jpaQuery).fetch();
+    return PageableExecutionUtils.getPage(content, checked, count);
+  }
+
+  protected <T> Page<T> applyPagination(Pageable pageable, boolean selective,
+      Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
     JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-    List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+    Pageable checked = guard("applyPagination", pageable, selective, jpaContentQuery);
+    List<T> content = getQuerydsl().applyPagination(checked, jpaContentQuery).fetch();
     JPAQuery countResult = countQuery.apply(getQueryFactory());
-    return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+    return PageableExecutionUtils.getPage(content, checked, createCountQuery(countResult));
+  }
+
+  // count 쿼리 없이 pageSize + 1 건을 읽어서 다음 페이지 존재 여부를 판단한다.
+  @SuppressWarnings("unchecked")
+  protected <T> Slice<T> applySlice(Pageable pageable, boolean selective,
+      Function<JPAQueryFactory, JPAQuery> contentQuery) {
+    JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+    Pageable checked = guard("applySlice", pageable, selective, jpaQuery);
+    if (checked.isUnpaged()) {
+      return new SliceImpl<>(jpaQuery.fetch(), checked, false);
+    }
+    JPQLQuery<T> paged = getQuerydsl().applyPagination(checked, (JPQLQuery<T>) jpaQuery);
+    List<T> result = paged.limit(checked.getPageSize() + 1L).fetch();
+
+    boolean hasNext = result.size() > checked.getPageSize();
+    List<T> content = hasNext ? result.subList(0, checked.getPageSize()) : result;
+    return new SliceImpl<>(content, checked, hasNext);
+  }
+
+  /**
+   * 지연 조인(ID 먼저) 페이징
+   * <p>
+   * 1. 조건, 정렬, offset / limit 을 적용해서 해당 페이지의 id 만 조회한다.
+   * 2. loader 로 id in (...) 조회한 결과를 1 의 id 순서대로 다시 정렬한다.
+   * <p>
+   * offset 이 깊어도 DB 는 건너뛰는 행의 id 만 읽으면 되므로 넓은 행을 통째로 읽고 버리지 않는다.
+   * contentQuery 는 from / join / where 만 구성하면 되고 select 는 id 로 바뀐다.
+   *
+   * @param selective 선택적인 조건이 있는지 (예: QueryCostGuard.isSelective(condition))
+   * @param id        contentQuery 루트의 id 경로 (예: member.id)
+   * @param loader    id 목록으로 엔티티 또는 DTO 를 조회
+   * @param idOf      loader 결과에서 id 를 꺼낸다
+   */
+  protected <T, ID> Page<T> applyDeferredPagination(Pageable pageable, boolean selective,
+      Function<JPAQueryFactory, JPAQuery> contentQuery, Expression<ID> id, Function<List<ID>, List<T>> loader,
+      Function<T, ID> idOf) {
+    JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+    Pageable checked = guard("applyDeferredPagination", pageable, selective, jpaQuery);
+    LongSupplier count = createCountQuery(jpaQuery);
+    List<ID> ids = getQuerydsl().applyPagination(checked, jpaQuery.select(id)).fetch();
+    if (ids.isEmpty()) {
+      return PageableExecutionUtils.getPage(List.of(), checked, count);
+    }
+
+    Map<ID, T> loaded = loader.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+    List<T> content = ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    return PageableExecutionUtils.getPage(content, checked, count);
+  }
+
+  /**
+   * order by, fetch join, 조건에서 쓰지 않는 *ToOne left join 을 제거한 select count(...) 쿼리
+   *
+   * @see CountQueryBuilder
+   */
+  protected LongSupplier createCountQuery(JPAQuery<?> query) {
+    return CountQueryTracker.track(CountQueryBuilder.count(getEntityManager(), query));
   }
 }
\ No newline at end of file
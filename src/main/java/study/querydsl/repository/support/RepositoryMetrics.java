@@ -0,0 +1,167 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberKeysetSlice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.sql.StatementBudget;
+import study.querydsl.sql.StatementScope;
+import study.querydsl.sql.StatementTracker;
+
+/**
+ * 리포지토리 조회 메트릭
+ * <p>
+ * MemberJpaRepository, MemberRepositoryImpl, Querydsl4RepositorySupport 하위 클래스의 public 메서드를
+ * 메서드 + 사용한 검색 조건(predicates) 별로 측정한다. /actuator/metrics/repository.query 에서 확인
+ * <ul>
+ *   <li>repository.query: 실행 시간 (countSkipped: 페이지 조회에서 count 쿼리 생략 여부)</li>
+ *   <li>repository.query.rows: 반환 행 수</li>
+ *   <li>repository.query.page.size: 요청 페이지 크기</li>
+ *   <li>repository.query.count: 페이지 조회의 count 쿼리 실행 / 생략 횟수</li>
+ * </ul>
+ * {@link QueryEventSwitch} 가 켜져 있으면 같은 정보를 실행한 SQL 모양과 함께 JFR 이벤트({@link QueryExecutionEvent})로도 남긴다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetrics {
+
+  private static final String NOT_APPLICABLE = "n/a";
+
+  private final MeterRegistry meterRegistry;
+  private final QueryEventSwitch queryEvents;
+
+  @Around("(within(study.querydsl.repository.MemberJpaRepository)"
+      + " || within(study.querydsl.repository.MemberRepositoryImpl)"
+      + " || target(study.querydsl.repository.support.Querydsl4RepositorySupport))"
+      + " && execution(public * *(..))"
+      + " && !execution(* study.querydsl.repository.support.Querydsl4RepositorySupport.*(..))")
+  public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+    String repository = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName();
+    String method = joinPoint.getSignature().getName();
+    String predicates = predicates(joinPoint.getArgs());
+    Tags tags = Tags.of("class", repository, "method", method, "predicates", predicates);
+
+    QueryExecutionEvent event = queryEvents.begin();
+    StatementScope statements = event == null
+        ? null : StatementTracker.open("jfr " + method, StatementBudget.unlimited());
+    Boolean previous = CountQueryTracker.begin();
+    long start = System.nanoTime();
+    Object result = null;
+    String exception = "none";
+    try {
+      result = joinPoint.proceed();
+      return result;
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      boolean countExecuted = CountQueryTracker.end(previous);
+      String countSkipped = result instanceof Page<?> ? String.valueOf(!countExecuted) : NOT_APPLICABLE;
+      record(tags, joinPoint.getArgs(), result, exception, countSkipped, System.nanoTime() - start);
+      if (event != null) {
+        statements.close();
+        commit(event, statements, repository, method, predicates, joinPoint.getArgs(), result, exception,
+            countSkipped);
+      }
+    }
+  }
+
+  private void record(Tags tags, Object[] args, Object result, String exception, String countSkipped, long nanos) {
+    Timer.builder("repository.query")
+         .tags(tags)
+         .tag("countSkipped", countSkipped)
+         .tag("exception", exception)
+         .register(meterRegistry)
+         .record(nanos, TimeUnit.NANOSECONDS);
+
+    if (result instanceof Page<?>) {
+      Counter.builder("repository.query.count")
+             .tags(tags)
+             .tag("skipped", countSkipped)
+             .register(meterRegistry)
+             .increment();
+    }
+
+    long rows = rows(result);
+    if (rows >= 0) {
+      DistributionSummary.builder("repository.query.rows").tags(tags).register(meterRegistry).record(rows);
+    }
+    for (Object arg : args) {
+      if (arg instanceof Pageable pageable && pageable.isPaged()) {
+        DistributionSummary.builder("repository.query.page.size")
+                           .tags(tags)
+                           .register(meterRegistry)
+                           .record(pageable.getPageSize());
+      }
+    }
+  }
+
+  private static void commit(QueryExecutionEvent event, StatementScope statements, String repository, String method,
+      String predicates, Object[] args, Object result, String exception, String countSkipped) {
+    event.end();
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.repository = repository;
+    event.method = method;
+    event.predicates = predicates;
+    event.statementShape = String.join("; ", statements.getShapes().keySet());
+    event.statements = statements.getCount();
+    event.rows = rows(result);
+    event.pageSize = pageSize(args);
+    event.countQuerySkipped = countSkipped;
+    event.exception = exception;
+    event.commit();
+  }
+
+  private static int pageSize(Object[] args) {
+    for (Object arg : args) {
+      if (arg instanceof Pageable pageable && pageable.isPaged()) {
+        return pageable.getPageSize();
+      }
+    }
+    return 0;
+  }
+
+  private static String predicates(Object[] args) {
+    for (Object arg : args) {
+      if (arg instanceof MemberSearchCondition condition) {
+        return MemberSearchKey.predicateShape(condition);
+      }
+    }
+    return NOT_APPLICABLE;
+  }
+
+  // 행 수를 알 수 없는 반환 타입이면 -1
+  private static long rows(Object result) {
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Slice<?> slice) {
+      return slice.getNumberOfElements();
+    }
+    if (result instanceof MemberKeysetSlice keysetSlice) {
+      return keysetSlice.getContent().size();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent() ? 1 : 0;
+    }
+    return -1;
+  }
+}
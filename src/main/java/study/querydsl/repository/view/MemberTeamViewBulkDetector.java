@@ -0,0 +1,78 @@
+package study.querydsl.repository.view;
+
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.sql.SqlShapes;
+
+/**
+ * 엔티티 이벤트 없이 member / team 을 바꾸는 벌크 SQL 감지
+ * <p>
+ * 엔티티 한 건의 insert(values) / update, delete(where pk = ?) 는 MemberTeamViewSynchronizer 가 이벤트로 처리한다.
+ * 그 밖의 member / team 변경 SQL(Querydsl 벌크 update / delete, insert ... select 등)은 어떤 행이 바뀌었는지
+ * 알 수 없으므로 커밋 직전에 member_team_view 를 전체 다시 만든다. (트랜잭션마다 한 번)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberTeamViewBulkDetector implements StatementInspector {
+
+  private static final Pattern WRITE = Pattern.compile(
+      "^(?:insert into|update|delete from|merge into|truncate table) (?:member|team)(?!\\w)");
+  private static final Pattern ENTITY_ROW = Pattern.compile(
+      "^(?:insert into (?:member|team) ?\\([^()]*\\) values ?\\([^()]*\\)"
+          + "|update (?:member|team) set [^()]* where (?:member_id|team_id) ?= ?\\?"
+          + "|delete from (?:member|team) where (?:member_id|team_id) ?= ?\\?)$");
+
+  // 바뀐 member id 를 Synchronizer 에 직접 알려 주는 벌크 SQL 은 rebuild 하지 않는다. (StatementInspector 는 실행 쓰레드에서 호출된다)
+  private static final ThreadLocal<Boolean> keyed = ThreadLocal.withInitial(() -> false);
+
+  // Synchronizer 는 EntityManagerFactory 에 의존하고, EntityManagerFactory 는 이 inspector 가 필요하므로 나중에 꺼낸다.
+  private final ObjectProvider<MemberTeamViewSynchronizer> synchronizer;
+
+  @Override
+  public String inspect(String sql) {
+    String shape = SqlShapes.normalize(sql);
+    if (!keyed.get() && WRITE.matcher(shape).find() && !ENTITY_ROW.matcher(shape).matches()) {
+      scheduleRebuild(shape);
+    }
+    return sql;
+  }
+
+  static long keyed(LongSupplier statement) {
+    keyed.set(true);
+    try {
+      return statement.getAsLong();
+    } finally {
+      keyed.remove();
+    }
+  }
+
+  private void scheduleRebuild(String shape) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      log.warn("bulk statement outside a transaction, {} is not synchronized: {}",
+          MemberTeamViewSynchronizer.VIEW, shape);
+      return;
+    }
+    boolean registered = TransactionSynchronizationManager.getSynchronizations()
+                                                          .stream()
+                                                          .anyMatch(RebuildBeforeCommit.class::isInstance);
+    if (!registered) {
+      TransactionSynchronizationManager.registerSynchronization(new RebuildBeforeCommit());
+    }
+  }
+
+  private class RebuildBeforeCommit implements TransactionSynchronization {
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      synchronizer.getObject().rebuild();
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package study.querydsl.repository.view;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * member_team_view 동기화
+ * <p>
+ * Member persist / 변경(changeTeam 포함) / 삭제, Team 이름 변경을 Hibernate 이벤트로 받아서 바뀐 id 를 모아 두고,
+ * 커밋 직전(flush 이후)에 해당 행만 member / team 에서 다시 복사한다.
+ * 이벤트가 없는 벌크 update / delete 는 {@link MemberTeamViewBulkDetector} 가 감지해서 {@link #rebuild()} 로 전체를 다시 만든다.
+ * 바꿀 member id 를 아는 벌크 SQL(TeamMembership.moveAll, MemberBulkOperations)은 {@link #updateMembers} 로 실행한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberTeamViewSynchronizer
+    implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+  static final String VIEW = "member_team_view";
+  // 한 번에 in (...) 에 넣는 id 수
+  private static final int CHUNK_SIZE = 1_000;
+
+  private static final String SELECT_ROWS =
+      "select m.member_id, m.username, m.age, t.team_id, t.name"
+          + " from member m left join team t on t.team_id = m.team_id";
+  private static final String INSERT_ROWS =
+      "insert into " + VIEW + " (member_id, username, age, team_id, team_name) " + SELECT_ROWS;
+
+  private final EntityManagerFactory emf;
+  // 세션(트랜잭션)별로 바뀐 id
+  private final Map<SharedSessionContractImplementor, Pending> pending = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void register() {
+    EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                                        .getServiceRegistry()
+                                        .requireService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_INSERT, this);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (event.getEntity() instanceof Member member) {
+      pending(event.getSession()).members.add(member.getId());
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    if (event.getEntity() instanceof Member member) {
+      pending(event.getSession()).members.add(member.getId());
+    } else if (event.getEntity() instanceof Team team) {
+      pending(event.getSession()).teams.add(team.getId());
+    }
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    if (event.getEntity() instanceof Member) {
+      pending(event.getSession()).members.add((Long) event.getId());
+    }
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return false;
+  }
+
+  private Pending pending(EventSource session) {
+    return pending.computeIfAbsent(session, key -> {
+      Pending changes = new Pending();
+      session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completing -> {
+        pending.remove(key);
+        changes.apply(completing);
+      });
+      // 롤백되면 before 단계가 실행되지 않으므로 종료 시 항상 정리한다.
+      session.getActionQueue().registerProcess(
+          (AfterTransactionCompletionProcess) (success, completed) -> pending.remove(key));
+      return changes;
+    });
+  }
+
+  /**
+   * memberIds 의 member 만 바꾸는 벌크 SQL 을 실행한다.
+   * 전체 rebuild 대신 엔티티 변경과 같이 해당 행만 커밋 직전에 다시 복사한다.
+   */
+  public long updateMembers(Collection<Long> memberIds, LongSupplier statement) {
+    EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+    Assert.state(em != null, "No transactional EntityManager available");
+    long rows = MemberTeamViewBulkDetector.keyed(statement);
+    pending(em.unwrap(EventSource.class)).members.addAll(memberIds);
+    return rows;
+  }
+
+  /**
+   * 현재 트랜잭션에서 member_team_view 를 member / team 으로부터 다시 만든다.
+   */
+  public void rebuild() {
+    EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+    if (em == null) {
+      log.warn("{} rebuild skipped: no transactional EntityManager", VIEW);
+      return;
+    }
+    em.flush();
+    Session session = em.unwrap(Session.class);
+    session.createNativeQuery("delete from " + VIEW).addSynchronizedQuerySpace(VIEW).executeUpdate();
+    int rows = session.createNativeQuery(INSERT_ROWS).addSynchronizedQuerySpace(VIEW).executeUpdate();
+    log.info("{} rebuilt: rows={}", VIEW, rows);
+  }
+
+  private static class Pending {
+
+    private final Set<Long> members = ConcurrentHashMap.newKeySet();
+    private final Set<Long> teams = ConcurrentHashMap.newKeySet();
+
+    void apply(SessionImplementor session) {
+      for (List<Long> ids : chunks(members)) {
+        // 삭제된 member 는 지우기만 하고, 나머지는 원본에서 다시 복사한다.
+        session.createNativeQuery("delete from " + VIEW + " where member_id in (:ids)")
+               .addSynchronizedQuerySpace(VIEW)
+               .setParameterList("ids", ids)
+               .executeUpdate();
+        session.createNativeQuery(INSERT_ROWS + " where m.member_id in (:ids)")
+               .addSynchronizedQuerySpace(VIEW)
+               .setParameterList("ids", ids)
+               .executeUpdate();
+      }
+      for (List<Long> ids : chunks(teams)) {
+        session.createNativeQuery("update " + VIEW + " v set team_name ="
+                   + " (select t.name from team t where t.team_id = v.team_id) where v.team_id in (:ids)")
+               .addSynchronizedQuerySpace(VIEW)
+               .setParameterList("ids", ids)
+               .executeUpdate();
+      }
+    }
+
+    private static List<List<Long>> chunks(Set<Long> ids) {
+      List<Long> all = new ArrayList<>(ids);
+      List<List<Long>> chunks = new ArrayList<>();
+      for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+        chunks.add(all.subList(from, Math.min(all.size(), from + CHUNK_SIZE)));
+      }
+      return chunks;
+    }
+  }
+}
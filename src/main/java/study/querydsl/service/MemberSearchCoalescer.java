@@ -0,0 +1,96 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.repository.support.MemberSearchKey;
+
+/**
+ * 같은 검색의 동시 실행 합치기 (single-flight)
+ * <p>
+ * 같은 키의 검색이 이미 실행 중이면 쿼리를 다시 실행하지 않고 먼저 시작한 요청의 결과를 같이 받는다.
+ * timeout 안에 결과가 오지 않으면 기다리던 요청이 직접 실행한다.
+ * 쓰기 트랜잭션 안에서의 검색은 커밋 전 데이터가 다른 요청에 섞이지 않도록 합치지 않는다.
+ * <p>
+ * member.search.coalescing 카운터 (role: leader / follower / timeout / bypass)
+ */
+@Slf4j
+@Component
+public class MemberSearchCoalescer {
+
+  private final ConcurrentMap<MemberSearchKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final Duration timeout;
+  private final Counter leaders;
+  private final Counter followers;
+  private final Counter timeouts;
+  private final Counter bypassed;
+
+  public MemberSearchCoalescer(MeterRegistry meterRegistry,
+      @Value("${querydsl.search-coalescing.timeout:2s}") Duration timeout) {
+    this.timeout = timeout;
+    this.leaders = counter(meterRegistry, "leader");
+    this.followers = counter(meterRegistry, "follower");
+    this.timeouts = counter(meterRegistry, "timeout");
+    this.bypassed = counter(meterRegistry, "bypass");
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String role) {
+    return Counter.builder("member.search.coalescing").tag("role", role).register(meterRegistry);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T execute(MemberSearchKey key, Supplier<T> loader) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      bypassed.increment();
+      return loader.get();
+    }
+
+    CompletableFuture<Object> mine = new CompletableFuture<>();
+    CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+    if (running == null) {
+      leaders.increment();
+      try {
+        T value = loader.get();
+        mine.complete(value);
+        return value;
+      } catch (RuntimeException | Error e) {
+        mine.completeExceptionally(e);
+        throw e;
+      } finally {
+        inFlight.remove(key, mine);
+      }
+    }
+
+    followers.increment();
+    try {
+      return (T) running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      timeouts.increment();
+      log.debug("coalesced search timed out after {}ms, running it directly: {}", timeout.toMillis(), key);
+      return loader.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for coalesced search: " + key, e);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberKeysetSlice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.cache.MemberSearchCache;
+import study.querydsl.repository.support.MemberSearchKey;
+import study.querydsl.repository.support.QueryCostGuard;
+
+/**
+ * 컨트롤러에서 사용하는 회원 검색
+ * <p>
+ * 같은 조건 + 페이지 요청이 반복되므로 MemberRepositoryCustom 앞에서 결과를 캐시한다.
+ * 캐시된 결과는 모든 호출자가 같이 쓰므로 변경할 수 없는 목록(Page / Slice 의 content 포함)과 DTO 로 돌려준다.
+ * 캐시에 없는 같은 검색이 동시에 들어오면 {@link MemberSearchCoalescer} 로 한 번만 실행한다.
+ * 비용이 큰 검색(큰 페이지, 인덱스 없는 정렬, 조건 없는 검색)은 {@link QueryCostGuard} 가 먼저 줄이거나 거절한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberSearchService {
+
+  private final MemberRepository memberRepository;
+  private final MemberSearchCache searchCache;
+  private final MemberSearchCoalescer coalescer;
+  private final QueryCostGuard costGuard;
+
+  public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    costGuard.checkSearch("search", condition);
+    return load(
+        MemberSearchKey.of("search", condition, null),
+        () -> List.copyOf(memberRepository.search(condition)));
+  }
+
+  public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+    Pageable checked = costGuard.checkPage("searchPageSimple", condition, pageable);
+    return load(
+        MemberSearchKey.of("searchPageSimple", condition, checked),
+        () -> memberRepository.searchPageSimple(condition, checked));
+  }
+
+  public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    Pageable checked = costGuard.checkPage("searchPageComplex", condition, pageable);
+    return load(
+        MemberSearchKey.of("searchPageComplex", condition, checked),
+        () -> memberRepository.searchPageComplex(condition, checked));
+  }
+
+  public ApproximatePage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+    Pageable checked = costGuard.checkPage("searchPageApproximate", condition, pageable);
+    return load(
+        MemberSearchKey.of("searchPageApproximate", condition, checked),
+        () -> memberRepository.searchPageApproximate(condition, checked));
+  }
+
+  public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+    Pageable checked = costGuard.checkPage("searchSlice", condition, pageable);
+    return load(
+        MemberSearchKey.of("searchSlice", condition, checked),
+        () -> memberRepository.searchSlice(condition, checked));
+  }
+
+  // 동시 실행 검색은 매번 새로 조회하므로 캐시 / 합치기를 거치지 않는다.
+  public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable) {
+    return memberRepository.searchPageConcurrent(
+        condition, costGuard.checkPage("searchPageConcurrent", condition, pageable));
+  }
+
+  // 키셋 페이징은 offset 이 없으므로 크기만 제한한다.
+  public MemberKeysetSlice searchByKeyset(MemberSearchCondition condition, MemberCursor cursor, int size) {
+    Assert.isTrue(size > 0, "Size must be greater than zero!");
+    int checked = costGuard.checkPage("searchByKeyset", true, PageRequest.ofSize(size)).getPageSize();
+    return memberRepository.searchByKeyset(condition, cursor, checked);
+  }
+
+  private <T> T load(MemberSearchKey key, Supplier<T> loader) {
+    return searchCache.get(key, () -> coalescer.execute(key, loader));
+  }
+}
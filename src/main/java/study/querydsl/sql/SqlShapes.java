@@ -0,0 +1,30 @@
+package study.querydsl.sql;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 에서 값만 다른 문장을 같은 모양(shape)으로 묶기 위한 정규화
+ * <p>
+ * 주석 제거, 문자열 / 숫자 리터럴 -> ?, in (?, ?, ?) -> in (?), 공백 정리, 소문자
+ */
+public final class SqlShapes {
+
+  private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+  private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+  private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private SqlShapes() {
+  }
+
+  public static String normalize(String sql) {
+    String shape = COMMENT.matcher(sql).replaceAll(" ");
+    shape = STRING.matcher(shape).replaceAll("?");
+    shape = NUMBER.matcher(shape).replaceAll("?");
+    shape = IN_LIST.matcher(shape).replaceAll("(?)");
+    shape = WHITESPACE.matcher(shape).replaceAll(" ");
+    return shape.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.sql;
+
+import java.time.Instant;
+import java.util.StringJoiner;
+import lombok.Getter;
+
+/**
+ * 샘플링된 SQL 한 건
+ * <p>
+ * 바인딩 값은 실행 쓰레드에서 참조만 복사해 두고, 문자열 변환은 읽는 쪽(로그 / 엔드포인트)에서 한다.
+ */
+@Getter
+public class SqlTrace {
+
+  public enum Reason {
+    SLOW,
+    SAMPLED
+  }
+
+  // 문자열로 바꿀 때 값 하나의 최대 길이
+  private static final int MAX_VALUE_LENGTH = 100;
+
+  private final long sequence;
+  private final Instant executedAt;
+  private final String sql;
+  private final Object[] binds;
+  private final int batchSize;
+  private final long elapsedNanos;
+  private final Reason reason;
+  private final String thread;
+
+  SqlTrace(long sequence, String sql, Object[] binds, int batchSize, long elapsedNanos, Reason reason) {
+    this.sequence = sequence;
+    this.executedAt = Instant.now();
+    this.sql = sql;
+    this.binds = binds;
+    this.batchSize = batchSize;
+    this.elapsedNanos = elapsedNanos;
+    this.reason = reason;
+    this.thread = Thread.currentThread().getName();
+  }
+
+  public String formatBinds() {
+    StringJoiner joiner = new StringJoiner(", ", "[", "]");
+    for (Object bind : binds) {
+      String value = String.valueOf(bind);
+      joiner.add(value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) + "..." : value);
+    }
+    return joiner.toString();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("#%d %s %.3fms [%s] %s binds=%s%s", sequence, reason, elapsedNanos / 1_000_000d, thread,
+        SqlShapes.normalize(sql), formatBinds(), batchSize > 0 ? " batch=" + batchSize : "");
+  }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.sql;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 고정 크기 링 버퍼
+ * <p>
+ * 실행 쓰레드는 순번을 하나 받아서 슬롯에 넣기만 한다. (락 / 대기 없음, 가득 차면 오래된 것을 덮어쓴다)
+ * 포맷팅과 로그 출력은 별도 쓰레드가 drainInterval 마다 모아서 한다.
+ * 출력 전에 덮어써진 건수는 dropped 로 센다.
+ */
+@Slf4j(topic = "study.querydsl.sql.trace")
+public class SqlTraceBuffer implements AutoCloseable {
+
+  private final AtomicReferenceArray<SqlTrace> slots;
+  private final int mask;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final ScheduledExecutorService drainer;
+  // drainer 쓰레드만 사용
+  private long drained;
+
+  public SqlTraceBuffer(int size, Duration drainInterval) {
+    int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+    this.drainer = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("sql-trace-drain").daemon().factory());
+    long interval = drainInterval.toMillis();
+    drainer.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  void publish(String sql, Object[] binds, int batchSize, long elapsedNanos, SqlTrace.Reason reason) {
+    long next = sequence.getAndIncrement();
+    slots.set((int) (next & mask), new SqlTrace(next, sql, binds, batchSize, elapsedNanos, reason));
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  public long getRecorded() {
+    return sequence.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  // 최근 기록부터 최대 limit 건
+  public List<SqlTrace> recent(int limit) {
+    List<SqlTrace> traces = new ArrayList<>();
+    long head = sequence.get();
+    for (long seq = head - 1; seq >= 0 && seq >= head - capacity() && traces.size() < limit; seq--) {
+      SqlTrace trace = slots.get((int) (seq & mask));
+      if (trace != null && trace.getSequence() == seq) {
+        traces.add(trace);
+      }
+    }
+    return traces;
+  }
+
+  void drain() {
+    long head = sequence.get();
+    if (head - drained > capacity()) {
+      dropped.addAndGet(head - drained - capacity());
+      drained = head - capacity();
+    }
+    while (drained < head) {
+      SqlTrace trace = slots.get((int) (drained & mask));
+      if (trace == null || trace.getSequence() < drained) {
+        // 순번은 받았지만 아직 슬롯에 넣는 중, 다음 주기에 다시 읽는다.
+        return;
+      }
+      if (trace.getSequence() > drained) {
+        // 읽기 전에 덮어써졌다.
+        dropped.incrementAndGet();
+      } else if (log.isInfoEnabled()) {
+        log.info("{}", trace);
+      }
+      drained++;
+    }
+  }
+
+  @Override
+  public void close() {
+    drainer.shutdown();
+    try {
+      if (drainer.awaitTermination(1, TimeUnit.SECONDS)) {
+        drain();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
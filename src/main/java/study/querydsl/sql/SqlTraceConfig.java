@@ -0,0 +1,47 @@
+package study.querydsl.sql;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 샘플링 SQL 추적 (querydsl.sql-trace)
+ * <p>
+ * 모든 SQL 을 요청 쓰레드에서 포맷팅해서 남기는 org.hibernate.SQL debug / p6spy 대신 사용한다.
+ * 기록된 SQL 은 로그(study.querydsl.sql.trace)와 /actuator/sqltrace 로 확인한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.sql-trace", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+  // 라우팅 사용 시에도 애플리케이션이 쓰는 DataSource 는 이 이름 하나다. (replica 등 내부 DataSource 는 감싸지 않는다)
+  static final String DATA_SOURCE_BEAN = "dataSource";
+
+  @Bean(destroyMethod = "close")
+  SqlTraceBuffer sqlTraceBuffer(SqlTraceProperties properties) {
+    return new SqlTraceBuffer(properties.getBufferSize(), properties.getDrainInterval());
+  }
+
+  @Bean
+  SqlTraceEndpoint sqlTraceEndpoint(SqlTraceBuffer buffer) {
+    return new SqlTraceEndpoint(buffer);
+  }
+
+  @Bean
+  static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<SqlTraceBuffer> buffer,
+      ObjectProvider<SqlTraceProperties> properties) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)
+            && DATA_SOURCE_BEAN.equals(beanName)) {
+          return new TracingDataSource(dataSource, new SqlTracer(buffer.getObject(), properties.getObject()));
+        }
+        return bean;
+      }
+    };
+  }
+}
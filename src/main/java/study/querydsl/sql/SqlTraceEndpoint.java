@@ -0,0 +1,33 @@
+package study.querydsl.sql;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+// 최근 샘플링된 SQL: GET /actuator/sqltrace?limit=50
+@Endpoint(id = "sqltrace")
+@RequiredArgsConstructor
+public class SqlTraceEndpoint {
+
+  private static final int DEFAULT_LIMIT = 50;
+
+  private final SqlTraceBuffer buffer;
+
+  @ReadOperation
+  public Map<String, Object> traces(@Nullable Integer limit) {
+    List<String> traces = buffer.recent(limit == null ? DEFAULT_LIMIT : limit)
+                                .stream()
+                                .map(SqlTrace::toString)
+                                .toList();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("capacity", buffer.capacity());
+    result.put("recorded", buffer.getRecorded());
+    result.put("dropped", buffer.getDropped());
+    result.put("traces", traces);
+    return result;
+  }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.sql;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("querydsl.sql-trace")
+public class SqlTraceProperties {
+
+  private boolean enabled = true;
+  // 실행 시간과 상관없이 기록할 비율 (0 ~ 1)
+  private double sampleRate = 0.01;
+  // 이보다 오래 걸린 SQL 은 항상 기록한다. 0 이면 시간 기준 기록 안 함
+  private Duration slowThreshold = Duration.ofMillis(100);
+  // 링 버퍼 크기 (2의 거듭제곱으로 올림), 가득 차면 오래된 것부터 덮어쓴다.
+  private int bufferSize = 1024;
+  // 문장당 보관하는 바인딩 값 수
+  private int maxBindValues = 64;
+  // 버퍼를 로그(study.querydsl.sql.trace)로 내보내는 주기
+  private Duration drainInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,136 @@
+package study.querydsl.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JDBC Connection / Statement 프록시로 SQL 실행 시간을 재고, 샘플링된 것만 {@link SqlTraceBuffer} 에 넣는다.
+ * <p>
+ * 기록 대상: slowThreshold 이상 걸린 SQL(SLOW), 또는 sampleRate 확률로 뽑힌 SQL(SAMPLED)
+ * 실행 쓰레드에서는 바인딩 값 참조를 배열에 넣는 것 외에 포맷팅 / 로그를 하지 않는다.
+ */
+public class SqlTracer {
+
+  private final SqlTraceBuffer buffer;
+  private final double sampleRate;
+  private final long slowNanos;
+  private final int maxBindValues;
+
+  public SqlTracer(SqlTraceBuffer buffer, SqlTraceProperties properties) {
+    this.buffer = buffer;
+    this.sampleRate = properties.getSampleRate();
+    this.slowNanos = properties.getSlowThreshold() == null || properties.getSlowThreshold().isZero()
+        ? Long.MAX_VALUE : properties.getSlowThreshold().toNanos();
+    this.maxBindValues = properties.getMaxBindValues();
+  }
+
+  public Connection wrap(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(SqlTracer.class.getClassLoader(), new Class<?>[]{Connection.class},
+        new ConnectionHandler(connection));
+  }
+
+  private boolean sampled() {
+    return sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private class ConnectionHandler implements InvocationHandler {
+
+    private final Connection target;
+
+    ConnectionHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Object result = SqlTracer.invoke(target, method, args);
+      if (!(result instanceof Statement statement)) {
+        return result;
+      }
+      // prepareStatement / prepareCall(sql, ...) 은 SQL 을 미리 알고, createStatement() 는 execute 시점에 받는다.
+      String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+      Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+          : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+      return Proxy.newProxyInstance(SqlTracer.class.getClassLoader(), new Class<?>[]{type},
+          new StatementHandler(statement, sql));
+    }
+  }
+
+  private class StatementHandler implements InvocationHandler {
+
+    private final Statement target;
+    private final String sql;
+    private Object[] binds = new Object[8];
+    private int bindCount;
+    private int batchSize;
+
+    StatementHandler(Statement target, String sql) {
+      this.target = target;
+      this.sql = sql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.startsWith("execute")) {
+        return execute(method, args);
+      }
+      if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+        bind(index, name.equals("setNull") ? null : args[1]);
+      } else if (name.equals("clearParameters")) {
+        Arrays.fill(binds, 0, bindCount, null);
+        bindCount = 0;
+      } else if (name.equals("addBatch")) {
+        batchSize++;
+      } else if (name.equals("clearBatch")) {
+        batchSize = 0;
+      }
+      return SqlTracer.invoke(target, method, args);
+    }
+
+    private void bind(int index, Object value) {
+      if (index < 1 || index > maxBindValues) {
+        return;
+      }
+      if (index > binds.length) {
+        binds = Arrays.copyOf(binds, Math.min(maxBindValues, Math.max(index, binds.length * 2)));
+      }
+      binds[index - 1] = value;
+      bindCount = Math.max(bindCount, index);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+      boolean sampled = sampled();
+      long start = System.nanoTime();
+      try {
+        return SqlTracer.invoke(target, method, args);
+      } finally {
+        long elapsed = System.nanoTime() - start;
+        if (sampled || elapsed >= slowNanos) {
+          String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+          buffer.publish(executed, Arrays.copyOf(binds, bindCount), batchSize, elapsed,
+              elapsed >= slowNanos ? SqlTrace.Reason.SLOW : SqlTrace.Reason.SAMPLED);
+        }
+        if (method.getName().equals("executeBatch")) {
+          batchSize = 0;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.sql;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 한 범위(요청, 트랜잭션, 테스트)에서 허용하는 SQL 실행 수
+ * <p>
+ * maxStatements: 전체 문장 수, maxRepeats: 같은 모양 문장의 반복 수 (N+1 의심), 0 이면 제한 없음
+ */
+@Getter
+@RequiredArgsConstructor
+public class StatementBudget {
+
+  public enum Action {
+    // 로그만 남긴다.
+    WARN,
+    // StatementBudgetExceededException 을 던져서 해당 SQL 실행을 막는다.
+    FAIL
+  }
+
+  private final int maxStatements;
+  private final int maxRepeats;
+  private final Action action;
+
+  public static StatementBudget unlimited() {
+    return new StatementBudget(0, 0, Action.WARN);
+  }
+}
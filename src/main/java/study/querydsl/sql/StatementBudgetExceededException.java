@@ -0,0 +1,8 @@
+package study.querydsl.sql;
+
+public class StatementBudgetExceededException extends IllegalStateException {
+
+  public StatementBudgetExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// HTTP 요청 하나에서 실행된 SQL 수를 센다.
+@Component
+@RequiredArgsConstructor
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+  private final StatementBudgetProperties properties;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!properties.isEnabled()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    try (StatementScope ignored = StatementTracker.open(
+        request.getMethod() + " " + request.getRequestURI(), properties.requestBudget())) {
+      filterChain.doFilter(request, response);
+    }
+  }
+}
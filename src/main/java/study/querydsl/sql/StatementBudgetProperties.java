@@ -0,0 +1,27 @@
+package study.querydsl.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("querydsl.statement-budget")
+public class StatementBudgetProperties {
+
+  private boolean enabled = true;
+  // 0 이면 제한 없음
+  private int maxPerRequest = 50;
+  private int maxPerTransaction = 30;
+  // 같은 모양의 SQL 이 이 횟수를 넘으면 N+1 로 본다.
+  private int maxRepeats = 10;
+  private StatementBudget.Action action = StatementBudget.Action.WARN;
+
+  StatementBudget requestBudget() {
+    return new StatementBudget(maxPerRequest, maxRepeats, action);
+  }
+
+  StatementBudget transactionBudget() {
+    return new StatementBudget(maxPerTransaction, maxRepeats, action);
+  }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.sql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요청 / 트랜잭션 / 테스트 단위로 실행된 SQL 수와 모양별 반복 수를 센다.
+ * <p>
+ * try-with-resources 로 닫으면 현재 쓰레드에서 더 이상 기록하지 않는다.
+ */
+@Slf4j
+public class StatementScope implements AutoCloseable {
+
+  @Getter
+  private final String name;
+  private final StatementBudget budget;
+  private final Map<String, Integer> shapes = new LinkedHashMap<>();
+  @Getter
+  private int count;
+
+  StatementScope(String name, StatementBudget budget) {
+    this.name = name;
+    this.budget = budget;
+  }
+
+  void record(String shape) {
+    count++;
+    int repeats = shapes.merge(shape, 1, Integer::sum);
+    if (budget.getMaxStatements() > 0 && count == budget.getMaxStatements() + 1) {
+      violate(String.format("[%s] executed more than %d statements", name, budget.getMaxStatements()));
+    }
+    if (budget.getMaxRepeats() > 0 && repeats == budget.getMaxRepeats() + 1) {
+      violate(String.format("[%s] same statement executed more than %d times (N+1?): %s",
+          name, budget.getMaxRepeats(), shape));
+    }
+  }
+
+  // 모양별 실행 수 (실행 순서대로)
+  public Map<String, Integer> getShapes() {
+    return Collections.unmodifiableMap(shapes);
+  }
+
+  public int getMostRepeated() {
+    return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+  }
+
+  private void violate(String message) {
+    if (budget.getAction() == StatementBudget.Action.FAIL) {
+      throw new StatementBudgetExceededException(message);
+    }
+    log.warn(message);
+  }
+
+  @Override
+  public void close() {
+    StatementTracker.close(this);
+    log.debug("[{}] statements={}, shapes={}", name, count, shapes.size());
+  }
+}
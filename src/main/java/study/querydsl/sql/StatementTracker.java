@@ -0,0 +1,95 @@
+package study.querydsl.sql;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate 가 실행하는 SQL 을 현재 쓰레드의 {@link StatementScope} 에 기록한다.
+ * <p>
+ * 요청 범위는 {@link StatementBudgetFilter}, 트랜잭션 범위는 트랜잭션의 첫 SQL 에서 자동으로 열리고 종료 시 닫힌다.
+ * 테스트에서는 {@link #open(String, StatementBudget)} 으로 원하는 구간만 직접 센다.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementTracker implements StatementInspector {
+
+  private static final ThreadLocal<Deque<StatementScope>> SCOPES = new ThreadLocal<>();
+
+  private final StatementBudgetProperties properties;
+
+  public static StatementScope open(String name, StatementBudget budget) {
+    Deque<StatementScope> scopes = SCOPES.get();
+    if (scopes == null) {
+      scopes = new ArrayDeque<>();
+      SCOPES.set(scopes);
+    }
+    StatementScope scope = new StatementScope(name, budget);
+    scopes.push(scope);
+    return scope;
+  }
+
+  static void close(StatementScope scope) {
+    Deque<StatementScope> scopes = SCOPES.get();
+    if (scopes != null) {
+      scopes.remove(scope);
+      if (scopes.isEmpty()) {
+        SCOPES.remove();
+      }
+    }
+  }
+
+  @Override
+  public String inspect(String sql) {
+    StatementScope transactionScope = properties.isEnabled() ? currentTransactionScope() : null;
+    Deque<StatementScope> scopes = SCOPES.get();
+    if (transactionScope == null && scopes == null) {
+      return sql;
+    }
+    String shape = SqlShapes.normalize(sql);
+    if (transactionScope != null) {
+      transactionScope.record(shape);
+    }
+    if (scopes != null) {
+      for (StatementScope scope : scopes) {
+        scope.record(shape);
+      }
+    }
+    return sql;
+  }
+
+  // REQUIRES_NEW 로 새 트랜잭션이 열리면 동기화 목록도 새로 시작하므로 트랜잭션마다 따로 센다.
+  private StatementScope currentTransactionScope() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof TransactionScope transactionScope) {
+        return transactionScope.scope;
+      }
+    }
+    String name = TransactionSynchronizationManager.getCurrentTransactionName();
+    TransactionScope transactionScope = new TransactionScope(
+        new StatementScope("tx " + name, properties.transactionBudget()));
+    TransactionSynchronizationManager.registerSynchronization(transactionScope);
+    return transactionScope.scope;
+  }
+
+  private static class TransactionScope implements TransactionSynchronization {
+
+    private final StatementScope scope;
+
+    TransactionScope(StatementScope scope) {
+      this.scope = scope;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      scope.close();
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// 커넥션을 SqlTracer 프록시로 감싼다. (DelegatingDataSource 라 풀 메트릭 등은 원래 DataSource 를 찾아간다)
+public class TracingDataSource extends DelegatingDataSource {
+
+  private final SqlTracer tracer;
+
+  public TracingDataSource(DataSource target, SqlTracer tracer) {
+    super(target);
+    this.tracer = tracer;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return tracer.wrap(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return tracer.wrap(super.getConnection(username, password));
+  }
+}
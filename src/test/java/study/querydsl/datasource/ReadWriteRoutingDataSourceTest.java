@@ -0,0 +1,61 @@
+package study.querydsl.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.datasource.RoutingDataSourceProperties.Selection;
+
+// 서로 다른 H2 메모리 DB 두 개를 primary / replica 로 사용한다.
+// 각 DB 의 node 테이블에 자기 이름과 복제 지연(ms)을 저장해 둔다.
+class ReadWriteRoutingDataSourceTest {
+
+  DataSource primary = h2("routing_primary", 0);
+  DataSource replica = h2("routing_replica", 10_000);
+
+  @Test
+  public void readOnlyTransactionUsesReplica() {
+    ReadWriteRoutingDataSource routing = routing(null);
+
+    assertThat(nodeName(routing, true)).isEqualTo("routing_replica");
+    assertThat(nodeName(routing, false)).isEqualTo("routing_primary");
+  }
+
+  @Test
+  public void laggingReplicaFallsBackToPrimary() {
+    ReadWriteRoutingDataSource routing = routing("select lag_millis from node");
+
+    routing.checkLag();
+
+    assertThat(nodeName(routing, true)).isEqualTo("routing_primary");
+  }
+
+  private ReadWriteRoutingDataSource routing(String lagQuery) {
+    return new ReadWriteRoutingDataSource(primary, List.of(replica), Selection.ROUND_ROBIN, lagQuery,
+        Duration.ofSeconds(1));
+  }
+
+  private String nodeName(ReadWriteRoutingDataSource routing, boolean readOnly) {
+    DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+    TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    template.setReadOnly(readOnly);
+    return template.execute(status -> new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+  }
+
+  private static DataSource h2(String name, long lagMillis) {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+        "sa", "");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create table if not exists node (name varchar(20), lag_millis bigint)");
+    jdbcTemplate.update("delete from node");
+    jdbcTemplate.update("insert into node values (?, ?)", name, lagMillis);
+    return dataSource;
+  }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+// 쿼리 캐시는 테이블 타임스탬프보다 나중에 캐시된 결과만 쓴다.
+// 테스트 트랜잭션 안에서 데이터를 flush 하면 커밋 전까지 타임스탬프가 무효 상태라 캐시 적중이 일어나지 않으므로
+// 데이터를 별도 트랜잭션으로 커밋하고 직접 지운다.
+@SpringBootTest
+class SecondLevelCacheTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  EntityManagerFactory emf;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  TransactionTemplate tx;
+  Statistics statistics;
+  Long teamAId;
+
+  @BeforeEach
+  public void before() {
+    statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    tx = new TransactionTemplate(transactionManager);
+    teamAId = tx.execute(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      em.persist(new Member("member1", 10, teamA));
+      em.persist(new Member("member2", 20, teamA));
+      return teamA.getId();
+    });
+  }
+
+  @AfterEach
+  public void after() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+  }
+
+  @Test
+  public void findTeamFromCache() {
+    tx.executeWithoutResult(status -> em.find(Team.class, teamAId));
+
+    long hits = statistics.getSecondLevelCacheHitCount();
+    Team cached = tx.execute(status -> em.find(Team.class, teamAId));
+
+    assertThat(cached.getName()).isEqualTo("teamA");
+    assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+  }
+
+  @Test
+  public void queryCacheInvalidatedByBulkUpdate() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+
+    memberJpaRepository.searchWhere(condition, true);
+    long hits = statistics.getQueryCacheHitCount();
+    memberJpaRepository.searchWhere(condition, true);
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 1);
+
+    // 벌크 update 는 member 테이블 타임스탬프를 갱신해서 캐시된 결과를 쓰지 않게 한다.
+    tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = m.age + 1").executeUpdate());
+    hits = statistics.getQueryCacheHitCount();
+    List<MemberTeamDto> result = memberJpaRepository.searchWhere(condition, true);
+    assertThat(result).extracting("age").containsExactlyInAnyOrder(11, 21);
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits);
+  }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.MemberBulkLoader.LoadResult;
+
+// 파티션마다 별도 쓰레드/트랜잭션으로 커밋하므로 테스트 트랜잭션(롤백)을 쓰지 않고 데이터를 직접 지운다.
+@SpringBootTest
+class MemberBulkLoaderTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  MemberBulkLoader memberBulkLoader;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  TransactionTemplate tx;
+
+  @BeforeEach
+  public void before() {
+    tx = new TransactionTemplate(transactionManager);
+  }
+
+  @AfterEach
+  public void after() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+  }
+
+  @Test
+  public void loadInPartitions() {
+    // 25 건을 파티션 3 개(9, 9, 7 건), 배치 4 건으로 나눠서 넣는다.
+    LoadResult result = memberBulkLoader.load(List.of("teamA", "teamB", "teamC"), 25, 4, 3);
+
+    assertThat(result.getRows()).isEqualTo(3 + 25);
+
+    List<Tuple> members = tx.execute(status -> queryFactory.select(member.username, member.age, team.name)
+                                                           .from(member)
+                                                           .join(member.team, team)
+                                                           .fetch());
+    assertThat(members).hasSize(25);
+    assertThat(members).extracting(row -> row.get(member.username)).doesNotHaveDuplicates()
+                       .contains("member1", "member25");
+
+    // member{i} 는 i % 3 번째 팀, age 는 i % 100
+    Map<String, Long> teamSizes = members.stream()
+                                         .collect(Collectors.groupingBy(row -> row.get(team.name),
+                                             Collectors.counting()));
+    assertThat(teamSizes).containsExactlyInAnyOrderEntriesOf(Map.of("teamA", 8L, "teamB", 9L, "teamC", 8L));
+    for (Tuple row : members) {
+      int i = Integer.parseInt(row.get(member.username).substring("member".length()));
+      assertThat(row.get(member.age)).isEqualTo(i % 100);
+      assertThat(row.get(team.name)).isEqualTo(List.of("teamA", "teamB", "teamC").get(i % 3));
+    }
+  }
+}
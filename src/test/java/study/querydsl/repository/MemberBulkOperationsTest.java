@@ -0,0 +1,118 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkOperations.BulkResult;
+
+// 청크마다 별도 트랜잭션으로 커밋하므로 테스트 트랜잭션(롤백)을 쓰지 않고 데이터를 직접 지운다.
+@SpringBootTest
+class MemberBulkOperationsTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  MemberBulkOperations bulkOperations;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  TransactionTemplate tx;
+
+  @BeforeEach
+  public void before() {
+    tx = new TransactionTemplate(transactionManager);
+    tx.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      for (int i = 0; i < 10; i++) {
+        em.persist(new Member("member" + i, i, teamA));
+      }
+    });
+  }
+
+  @AfterEach
+  public void after() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+  }
+
+  @Test
+  public void updateInChunks() {
+    List<BulkResult> progress = new ArrayList<>();
+
+    tx.executeWithoutResult(status -> {
+      Member loaded = em.createQuery("select m from Member m where m.age = 3", Member.class).getSingleResult();
+
+      BulkResult result = bulkOperations.update(member.age.lt(5),
+          clause -> clause.set(member.username, "non-member"), 2, progress::add);
+
+      assertThat(result.getRows()).isEqualTo(5);
+      assertThat(result.getChunks()).isEqualTo(3);
+      // 이미 영속성 컨텍스트에 있던 엔티티도 바뀐 값으로 맞춰진다.
+      assertThat(loaded.getUsername()).isEqualTo("non-member");
+    });
+
+    assertThat(progress).extracting(BulkResult::getRows).containsExactly(2L, 4L, 5L);
+    Long count = tx.execute(status -> em.createQuery(
+        "select count(m) from Member m where m.username = 'non-member'", Long.class).getSingleResult());
+    assertThat(count).isEqualTo(5);
+  }
+
+  @Test
+  public void deleteInChunks() {
+    tx.executeWithoutResult(status -> {
+      Member loaded = em.createQuery("select m from Member m where m.age = 9", Member.class).getSingleResult();
+
+      BulkResult result = bulkOperations.delete(member.age.goe(8), 1);
+
+      assertThat(result.getRows()).isEqualTo(2);
+      assertThat(em.contains(loaded)).isFalse();
+    });
+
+    Long count = tx.execute(status -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    assertThat(count).isEqualTo(8);
+  }
+
+  @Test
+  public void chunkedUpdateDoesNotRebuildView() {
+    // 바뀌지 않는 member9 의 view 행을 어긋나게 해 두면, 청크마다 전체 rebuild 를 했는지 알 수 있다.
+    tx.executeWithoutResult(status -> em.createNativeQuery(
+        "update member_team_view set username = 'stale' where username = 'member9'").executeUpdate());
+
+    bulkOperations.update(member.age.lt(5), clause -> clause.set(member.username, "non-member"), 2);
+
+    assertThat(memberRepository.searchView(new MemberSearchCondition()))
+        .extracting("username")
+        .containsExactlyInAnyOrder("non-member", "non-member", "non-member", "non-member", "non-member",
+            "member5", "member6", "member7", "member8", "stale");
+  }
+
+  @Test
+  public void chunkedDeleteSyncsView() {
+    bulkOperations.delete(member.age.goe(8), 1);
+
+    assertThat(memberRepository.searchView(new MemberSearchCondition())).extracting("username")
+                                                                       .hasSize(8)
+                                                                       .doesNotContain("member8", "member9");
+  }
+}
@@ -3,6 +3,7 @@ package study.querydsl.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -140,4 +141,26 @@ WHERE 절에 아무런 조건이 붙지 않으므로, 데이터베이스는 Memb
     // 순서도 맞아야 됨.
     assertThat(result).extracting("username").containsExactly("member4");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void streamWhereTest() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(new Member("member4", 40, teamB));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamB");
+
+    List<MemberTeamDto> result = new ArrayList<>();
+    long count = memberJpaRepository.streamWhere(condition, result::add);
+
+    assertThat(count).isEqualTo(2);
+    assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+  }
+}
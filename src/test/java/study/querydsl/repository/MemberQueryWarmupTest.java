@@ -0,0 +1,55 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberQueryWarmup.WarmupReport;
+import study.querydsl.repository.support.QueryCostGuard;
+
+// 테스트 설정에서는 예열 빈이 꺼져 있으므로 직접 만들어서 실행한다.
+@SpringBootTest
+@Transactional
+class MemberQueryWarmupTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+  @Autowired
+  EntityManagerFactory emf;
+
+  @Test
+  public void runsEveryShape() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 20, teamA));
+
+    MemberQueryWarmup warmup = new MemberQueryWarmup(memberRepository, transactionManager, emf, 2, 20);
+    WarmupReport first = warmup.warmUp();
+
+    assertThat(MemberQueryWarmup.shapes()).hasSize(16);
+    assertThat(first.getShapes()).isEqualTo(16);
+    // 선택적이지 않은 조합(빈 조건, ageGoe 만, ageLoe 만)은 페이지 없는 search / searchView 를 건너뛴다.
+    assertThat(MemberQueryWarmup.shapes()).filteredOn(condition -> !QueryCostGuard.isSelective(condition))
+                                          .hasSize(3);
+    assertThat(first.getCalls()).isEqualTo(2 * (13 * 10 + 3 * 8));
+    assertThat(first.getFailures()).isZero();
+    assertThat(first.getStatements()).isPositive();
+
+    // 두 번째 예열은 첫 번째에서 해석해 둔 HQL 을 그대로 쓴다.
+    // (DTO projection 쿼리의 SQL plan 은 실행마다 miss 이므로 miss 수는 0 이 아니다. WarmupReport.planCacheMisses 참고)
+    WarmupReport second = warmup.warmUp();
+    assertThat(second.getPlanCacheHits()).isPositive();
+    assertThat(second.getPlanCacheMisses()).isLessThanOrEqualTo(first.getPlanCacheMisses());
+  }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// content / count 가 각자 트랜잭션에서 실행되므로 데이터를 커밋해 두고 직접 지운다.
+// 커넥션 풀을 2개로 줄여서, 호출 하나가 content / count 용 2개만 쓰는지 확인한다. (바깥 트랜잭션이 있으면 3개 필요)
+@SpringBootTest(properties = {
+    "spring.datasource.hikari.maximum-pool-size=2",
+    "spring.datasource.hikari.connection-timeout=1000"})
+class MemberRepositoryConcurrentPageTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  TransactionTemplate tx;
+
+  @BeforeEach
+  public void before() {
+    tx = new TransactionTemplate(transactionManager);
+    tx.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      for (int i = 0; i < 10; i++) {
+        em.persist(new Member("member" + i, 10 + i, teamA));
+      }
+    });
+  }
+
+  @AfterEach
+  public void after() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+  }
+
+  @Test
+  public void holdsNoOuterConnection() {
+    Page<MemberTeamDto> page = memberRepository.searchPageConcurrent(new MemberSearchCondition(), PageRequest.of(0, 3));
+
+    assertThat(page.getContent()).hasSize(3);
+    assertThat(page.getTotalElements()).isEqualTo(10);
+  }
+
+  @Test
+  public void sameAsSearchPageComplex() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+    condition.setAgeGoe(12);
+
+    for (Pageable pageable : new Pageable[]{PageRequest.of(0, 3), PageRequest.of(1, 3), PageRequest.of(2, 3),
+        PageRequest.of(0, 10), PageRequest.of(5, 3)}) {
+      Page<MemberTeamDto> expected = memberRepository.searchPageComplex(condition, pageable);
+      Page<MemberTeamDto> actual = memberRepository.searchPageConcurrent(condition, pageable);
+
+      assertThat(actual.getContent()).isEqualTo(expected.getContent());
+      assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+    }
+  }
+
+  @Test
+  public void countSkippedOnShortPage() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("member1");
+    double skipped = countSkipped("true");
+    double used = countSkipped("false");
+
+    // 한 페이지에 다 들어가므로 count 결과를 쓰지 않고 content 크기가 전체 건수다.
+    Page<MemberTeamDto> page = memberRepository.searchPageConcurrent(condition, PageRequest.of(0, 3));
+
+    assertThat(page.getContent()).extracting("username").containsExactly("member1");
+    assertThat(page.getTotalElements()).isEqualTo(1);
+    assertThat(countSkipped("true")).isEqualTo(skipped + 1);
+    assertThat(countSkipped("false")).isEqualTo(used);
+
+    // 마지막 페이지도 마찬가지
+    page = memberRepository.searchPageConcurrent(new MemberSearchCondition(), PageRequest.of(3, 3));
+
+    assertThat(page.getContent()).hasSize(1);
+    assertThat(page.getTotalElements()).isEqualTo(10);
+    assertThat(countSkipped("true")).isEqualTo(skipped + 2);
+  }
+
+  // predicates 태그는 조건마다 다르므로 모두 더한다.
+  private double countSkipped(String skipped) {
+    return meterRegistry.find("repository.query.count")
+                        .tag("method", "searchPageConcurrent")
+                        .tag("skipped", skipped)
+                        .counters()
+                        .stream()
+                        .mapToDouble(Counter::count)
+                        .sum();
+  }
+}
@@ -9,12 +9,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberKeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.cache.MemberCountEstimator;
 
 @Transactional
 @SpringBootTest
@@ -24,6 +29,8 @@ class MemberRepositoryTest {
   EntityManager em;
   @Autowired
   MemberRepository memberRepository;
+  @Autowired
+  MemberCountEstimator countEstimator;
 
   @Test
   public void basicTest() {
@@ -100,6 +107,102 @@ class MemberRepositoryTest {
     assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
   }
 
+  @Test
+  public void searchSlice() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamA));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2));
+    assertThat(first.getContent()).hasSize(2);
+    assertThat(first.hasNext()).isTrue();
+
+    Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 2));
+    assertThat(last.getContent()).hasSize(1);
+    assertThat(last.hasNext()).isFalse();
+  }
+
+  @Test
+  public void searchPageApproximate() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamA));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    // 마지막 페이지는 content 만으로 전체 건수를 알 수 있으므로 추정하지 않는다.
+    ApproximatePage<MemberTeamDto> last = memberRepository.searchPageApproximate(condition, PageRequest.of(1, 2));
+    assertThat(last.isApproximate()).isFalse();
+    assertThat(last.getTotalElements()).isEqualTo(3);
+
+    ApproximatePage<MemberTeamDto> first = memberRepository.searchPageApproximate(condition, PageRequest.of(0, 2));
+    assertThat(first.getContent()).hasSize(2);
+    assertThat(first.isApproximate()).isTrue();
+  }
+
+  @Test
+  public void searchPageApproximateClampsEstimate() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamA));
+    countEstimator.invalidateAll();
+
+    // 조건이 있으면 테이블 통계를 쓰지 않고, 캐시된 값이 없으면 정확한 count 를 실행한다.
+    MemberSearchCondition exact = new MemberSearchCondition();
+    exact.setTeamName("teamA");
+    ApproximatePage<MemberTeamDto> exactPage = memberRepository.searchPageApproximate(exact, PageRequest.of(0, 2));
+    assertThat(exactPage.isApproximate()).isFalse();
+    assertThat(exactPage.getTotalElements()).isEqualTo(3);
+    // 실행한 count 는 다음 요청의 추정값이 된다.
+    assertThat(countEstimator.estimate(exact, () -> 0L)).isEqualTo(3);
+
+    // 캐시된 추정값(1)이 가득 찬 첫 페이지보다 작으면 이 페이지 + 1 건으로 올린다.
+    MemberSearchCondition stale = new MemberSearchCondition();
+    stale.setTeamName("teamA");
+    stale.setAgeGoe(10);
+    countEstimator.record(stale, 1L);
+    ApproximatePage<MemberTeamDto> page = memberRepository.searchPageApproximate(stale, PageRequest.of(0, 2));
+    assertThat(page.isApproximate()).isTrue();
+    assertThat(page.getTotalElements()).isEqualTo(3);
+    assertThat(page.hasNext()).isTrue();
+
+    countEstimator.invalidateAll();
+  }
+
+  @Test
+  public void searchByKeyset() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 20, teamB));
+    em.persist(new Member("member4", 40, teamB));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    MemberKeysetSlice first = memberRepository.searchByKeyset(condition, null, 2);
+    assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+    assertThat(first.isHasNext()).isTrue();
+
+    // 같은 age(20) 안에서는 memberId 로 이어서 읽는다.
+    MemberKeysetSlice second = memberRepository.searchByKeyset(
+        condition, MemberCursor.decode(first.getNextCursor()), 2);
+    assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+    assertThat(second.isHasNext()).isFalse();
+    assertThat(second.getNextCursor()).isNull();
+  }
+
   // querydslPredicateExecutor 한계점
   // 조인 x (명시적 조인 (left join)이 안된다. 묵시적 조인은 가능)
   // 클라이언트가 Querydsl을 의존
@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.support.StatementCountAssert.countStatements;
+
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.sql.StatementScope;
+
+// MemberSearchCondition 조합마다 실제 검색 SQL 을 H2 EXPLAIN 으로 확인해서 전체 스캔(tableScan)이 없어야 한다.
+// 조건이 하나도 없는 검색은 전체 조회가 맞으므로 제외한다. (QueryCostGuard 가 제한)
+@SpringBootTest
+@Transactional
+class MemberSearchIndexTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberRepository memberRepository;
+
+  @BeforeEach
+  public void before() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 200; i++) {
+      em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+    }
+    em.flush();
+    em.clear();
+  }
+
+  // 1 ~ 15 비트 조합: username, teamName, ageGoe, ageLoe
+  static Stream<MemberSearchCondition> conditions() {
+    return IntStream.range(1, 16).mapToObj(bits -> {
+      MemberSearchCondition condition = new MemberSearchCondition();
+      if ((bits & 1) != 0) {
+        condition.setUsername("member1");
+      }
+      if ((bits & 2) != 0) {
+        condition.setTeamName("teamA");
+      }
+      if ((bits & 4) != 0) {
+        condition.setAgeGoe(10);
+      }
+      if ((bits & 8) != 0) {
+        condition.setAgeLoe(20);
+      }
+      return condition;
+    });
+  }
+
+  @ParameterizedTest
+  @MethodSource("conditions")
+  public void searchUsesIndex(MemberSearchCondition condition) {
+    StatementScope scope = countStatements(() -> memberRepository.search(condition));
+    assertThat(scope.getShapes()).hasSize(1);
+    String sql = scope.getShapes().keySet().iterator().next();
+
+    String plan = explain(sql, parameters(condition));
+
+    assertThat(plan).as("plan for %s", condition).doesNotContainIgnoringCase("tableScan");
+  }
+
+  // where 절의 바인드 순서: username, teamName, ageGoe, ageLoe
+  private static List<Object> parameters(MemberSearchCondition condition) {
+    List<Object> parameters = new ArrayList<>();
+    if (condition.getUsername() != null) {
+      parameters.add(condition.getUsername());
+    }
+    if (condition.getTeamName() != null) {
+      parameters.add(condition.getTeamName());
+    }
+    if (condition.getAgeGoe() != null) {
+      parameters.add(condition.getAgeGoe());
+    }
+    if (condition.getAgeLoe() != null) {
+      parameters.add(condition.getAgeLoe());
+    }
+    return parameters;
+  }
+
+  private String explain(String sql, List<Object> parameters) {
+    return em.unwrap(Session.class).doReturningWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+        for (int i = 0; i < parameters.size(); i++) {
+          statement.setObject(i + 1, parameters.get(i));
+        }
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            plan.append(resultSet.getString(1)).append('\n');
+          }
+        }
+        return plan.toString();
+      }
+    });
+  }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class TeamMembershipTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  TeamMembership teamMembership;
+
+  Long teamAId;
+  Long teamBId;
+
+  @BeforeEach
+  public void before() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 4; i++) {
+      em.persist(new Member("member" + i, 10 + i, teamA));
+    }
+    em.flush();
+    em.clear();
+    teamAId = teamA.getId();
+    teamBId = teamB.getId();
+  }
+
+  @Test
+  public void changeTeamDoesNotLoadMembers() {
+    Member member0 = findMember("member0");
+    Team teamB = em.find(Team.class, teamBId);
+
+    member0.changeTeam(teamB);
+
+    // 로딩하지 않고 add 만 쌓아 둔다.
+    assertThat(Hibernate.isInitialized(teamB.getMembers())).isFalse();
+    // flush 전에 같은 트랜잭션에서 읽어도 보인다.
+    assertThat(teamB.getMembers()).containsExactly(member0);
+
+    em.flush();
+    assertThat(teamMembership.countMembers(teamBId)).isEqualTo(1);
+  }
+
+  @Test
+  public void changeTeamToProxyDoesNotLoadTeam() {
+    Member member0 = findMember("member0");
+    Team teamB = em.getReference(Team.class, teamBId);
+
+    member0.changeTeam(teamB);
+    em.flush();
+
+    assertThat(Hibernate.isInitialized(teamB)).isFalse();
+    assertThat(teamMembership.countMembers(teamBId)).isEqualTo(1);
+    // 나중에 로딩하면 바뀐 team_id 로 읽힌다.
+    assertThat(teamB.getMembers()).containsExactly(member0);
+  }
+
+  @Test
+  public void changeTeamKeepsLoadedMembers() {
+    Member member0 = findMember("member0");
+    Team teamA = em.find(Team.class, teamAId);
+    Team teamB = em.find(Team.class, teamBId);
+    Hibernate.initialize(teamA.getMembers());
+    Hibernate.initialize(teamB.getMembers());
+
+    member0.changeTeam(teamB);
+
+    assertThat(teamA.getMembers()).hasSize(3).doesNotContain(member0);
+    assertThat(teamB.getMembers()).containsExactly(member0);
+  }
+
+  @Test
+  public void move() {
+    Long memberId = findMember("member1").getId();
+    em.clear();
+
+    teamMembership.move(memberId, teamBId);
+    em.flush();
+
+    assertThat(Hibernate.isInitialized(em.find(Member.class, memberId).getTeam())).isFalse();
+    assertThat(teamMembership.countMembers(teamAId)).isEqualTo(3);
+    assertThat(teamMembership.countMembers(teamBId)).isEqualTo(1);
+  }
+
+  @Test
+  public void moveAll() {
+    List<Long> ids = em.createQuery("select m.id from Member m where m.age < 13", Long.class).getResultList();
+    Member loaded = findMember("member0");
+    Team teamA = em.find(Team.class, teamAId);
+    Hibernate.initialize(teamA.getMembers());
+
+    long rows = teamMembership.moveAll(ids, teamBId);
+
+    assertThat(rows).isEqualTo(3);
+    assertThat(teamMembership.countMembers(teamAId)).isEqualTo(1);
+    assertThat(teamMembership.countMembers(teamBId)).isEqualTo(3);
+    // 이미 로딩된 member 와 Team.members 도 맞춰진다.
+    assertThat(loaded.getTeam().getId()).isEqualTo(teamBId);
+    assertThat(teamA.getMembers()).extracting("username").containsExactly("member3");
+  }
+
+  private Member findMember(String username) {
+    return em.createQuery("select m from Member m where m.username = :username", Member.class)
+             .setParameter("username", username)
+             .getSingleResult();
+  }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.repository.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.MemberSearchCondition;
+
+@SpringBootTest
+class MemberCountEstimatorTest {
+
+  @Autowired
+  MemberCountEstimator countEstimator;
+  @Autowired
+  ExecutorService queryExecutor;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+  @Autowired
+  DataSource dataSource;
+
+  @BeforeEach
+  public void before() {
+    countEstimator.invalidateAll();
+  }
+
+  @Test
+  public void refreshInBackground() throws InterruptedException {
+    // 캐시된 값이 바로 오래된 값이 되도록 refresh-interval 을 0 으로 둔다.
+    MemberCountEstimator estimator = new MemberCountEstimator(queryExecutor, transactionManager, dataSource,
+        100, Duration.ZERO, "select 0");
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(20);
+
+    // 캐시에 없는 조건은 null 을 돌려주고 백그라운드 count 도 시작하지 않는다. (요청 쓰레드가 정확한 count 를 실행)
+    AtomicBoolean missRefreshed = new AtomicBoolean();
+    assertThat(estimator.estimate(condition, () -> {
+      missRefreshed.set(true);
+      return 0L;
+    })).isNull();
+
+    // 요청 쓰레드가 남긴 값은 그대로 돌려주고, 오래됐으면 백그라운드에서 다시 센다.
+    estimator.record(condition, 7L);
+    Long cached = estimator.estimate(condition, () -> 42L);
+    assertThat(cached).isEqualTo(7L);
+    for (int i = 0; i < 100 && !Long.valueOf(42L).equals(cached); i++) {
+      Thread.sleep(50);
+      cached = estimator.estimate(condition, () -> 42L);
+    }
+    assertThat(cached).isEqualTo(42L);
+    assertThat(missRefreshed).isFalse();
+  }
+
+  @Test
+  public void tableStatisticsOnlyForEmptyCondition() {
+    MemberSearchCondition empty = new MemberSearchCondition();
+    MemberSearchCondition selective = new MemberSearchCondition();
+    selective.setTeamName("teamA");
+
+    // 테이블 전체 행 수는 조건이 없을 때만 추정값이 된다.
+    assertThat(countEstimator.estimate(empty, () -> 42L)).isNotNull();
+    assertThat(countEstimator.estimate(selective, () -> 42L)).isNull();
+  }
+}
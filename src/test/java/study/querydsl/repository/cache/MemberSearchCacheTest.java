@@ -0,0 +1,56 @@
+package study.querydsl.repository.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberSearchKey;
+
+class MemberSearchCacheTest {
+
+  MemberSearchCache cache = new MemberSearchCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+  MemberSearchKey key = MemberSearchKey.of("search", new MemberSearchCondition(), null);
+  AtomicInteger loads = new AtomicInteger();
+
+  @AfterEach
+  public void after() {
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  public void cachesOutsideTransaction() {
+    cache.get(key, loads::incrementAndGet);
+    cache.get(key, loads::incrementAndGet);
+
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void cachesInReadOnlyTransaction() {
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    cache.get(key, loads::incrementAndGet);
+    cache.get(key, loads::incrementAndGet);
+
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  // 커밋 전 자기 변경이 보이는 결과는 다른 요청과 공유하지 않는다.
+  @Test
+  public void readWriteTransactionIsNotCached() {
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    cache.get(key, loads::incrementAndGet);
+    after();
+    cache.get(key, loads::incrementAndGet);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchLoaderTest {
+
+  ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+  // 짝수 id 만 존재한다고 가정
+  Function<List<Long>, Map<Long, String>> evenOnly = ids -> {
+    batches.add(ids);
+    return ids.stream().filter(id -> id % 2 == 0).collect(Collectors.toMap(id -> id, id -> "v" + id));
+  };
+
+  @AfterEach
+  public void after() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void batchWithinWindow() throws Exception {
+    BatchLoader<Long, String> loader = new BatchLoader<>(evenOnly, Duration.ofMillis(20), 100, scheduler, Runnable::run);
+
+    CompletableFuture<String> first = loader.load(2L);
+    CompletableFuture<String> duplicate = loader.load(2L);
+    CompletableFuture<String> missing = loader.load(3L);
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("v2");
+    assertThat(duplicate).isSameAs(first);
+    assertThat(missing.get(5, TimeUnit.SECONDS)).isNull();
+    assertThat(batches).containsExactly(List.of(2L, 3L));
+  }
+
+  @Test
+  public void dispatchWhenFullOrRequested() {
+    BatchLoader<Long, String> loader = new BatchLoader<>(evenOnly, Duration.ofHours(1), 2, scheduler, Runnable::run);
+
+    loader.load(1L);
+    loader.load(2L);
+    CompletableFuture<String> last = loader.load(4L);
+    loader.dispatch();
+
+    assertThat(last.join()).isEqualTo("v4");
+    assertThat(batches).containsExactly(List.of(1L, 2L), List.of(4L));
+  }
+
+  @Test
+  public void failWholeBatch() {
+    BatchLoader<Long, String> loader = new BatchLoader<>(ids -> {
+      throw new IllegalStateException("boom");
+    }, Duration.ofHours(1), 10, scheduler, Runnable::run);
+
+    CompletableFuture<String> future = loader.load(1L);
+    loader.dispatch();
+
+    assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+}
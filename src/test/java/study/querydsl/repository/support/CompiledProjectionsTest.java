@@ -0,0 +1,117 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class CompiledProjectionsTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @BeforeEach
+  public void before() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+  }
+
+  @Test
+  public void bean() {
+    List<MemberDto> result = queryFactory.select(CompiledProjections.bean(MemberDto.class, member.username, member.age))
+                                         .from(member)
+                                         .orderBy(member.age.asc())
+                                         .fetch();
+
+    assertThat(result).extracting("username", "age").containsExactly(tuple("member1", 10), tuple("member2", 20));
+  }
+
+  // 이름이 다르면 as() 로 맞춘다. 서브쿼리도 별칭으로 매핑된다.
+  @Test
+  public void fieldsWithAlias() {
+    QMember memberSub = new QMember("memberSub");
+
+    List<UserDto> result = queryFactory.select(CompiledProjections.fields(UserDto.class,
+                                           member.username.as("name"),
+                                           ExpressionUtils.as(JPAExpressions.select(memberSub.age.max())
+                                                                            .from(memberSub), "age")))
+                                       .from(member)
+                                       .fetch();
+
+    assertThat(result).extracting("name").containsExactlyInAnyOrder("member1", "member2");
+    assertThat(result).extracting("age").containsOnly(20);
+  }
+
+  // Projections.fields 와 같이 DTO 에 없는 이름은 무시한다.
+  @Test
+  public void unknownNameIsIgnored() {
+    List<UserDto> result = queryFactory.select(CompiledProjections.fields(UserDto.class, member.username, member.age))
+                                       .from(member)
+                                       .fetch();
+
+    assertThat(result).extracting("name").containsOnlyNulls();
+  }
+
+  @Test
+  public void constructor() {
+    List<MemberTeamDto> result = queryFactory.select(CompiledProjections.constructor(MemberTeamDto.class,
+                                                 member.id, member.username, member.age, team.id, team.name))
+                                             .from(member)
+                                             .leftJoin(member.team, team)
+                                             .orderBy(member.age.asc())
+                                             .fetch();
+
+    assertThat(result).extracting("username", "teamName")
+                      .containsExactly(tuple("member1", "teamA"), tuple("member2", "teamA"));
+  }
+
+  // Projections.constructor 처럼 outer join 으로 null 이 된 primitive 인자(int age)는 기본값으로 채운다.
+  @Test
+  public void constructorNullPrimitive() {
+    em.persist(new Team("teamB"));
+
+    List<MemberTeamDto> result = queryFactory.select(CompiledProjections.constructor(MemberTeamDto.class,
+                                                 member.id, member.username, member.age, team.id, team.name))
+                                             .from(team)
+                                             .leftJoin(team.members, member)
+                                             .where(team.name.eq("teamB"))
+                                             .fetch();
+
+    assertThat(result).extracting("username", "age", "teamName").containsExactly(tuple(null, 0, "teamB"));
+  }
+
+  @Test
+  public void mapperIsCompiledOnce() {
+    CompiledProjections.bean(MemberDto.class, member.username, member.age);
+    int cached = CompiledProjections.cacheSize();
+
+    CompiledProjections.bean(MemberDto.class, member.username, member.age);
+    CompiledProjections.bean(MemberDto.class, new QMember("other").username, member.age);
+
+    assertThat(CompiledProjections.cacheSize()).isEqualTo(cached);
+  }
+}
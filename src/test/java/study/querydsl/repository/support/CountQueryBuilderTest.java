@@ -0,0 +1,122 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+
+@SpringBootTest
+@Transactional
+class CountQueryBuilderTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberTestRepository memberTestRepository;
+
+  JPAQueryFactory queryFactory;
+
+  @BeforeEach
+  public void before() {
+    queryFactory = new JPAQueryFactory(em);
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(new Member("member4", 40, teamB));
+    em.persist(new Member("member5", 50));
+  }
+
+  @Test
+  public void dropUnreferencedLeftJoin() {
+    JPAQuery<Member> query = queryFactory.selectFrom(member)
+                                         .leftJoin(member.team, team).fetchJoin()
+                                         .where(member.age.goe(20))
+                                         .orderBy(member.username.desc());
+
+    assertThat(CountQueryBuilder.countMetadata(query.getMetadata()).getJoins()).hasSize(1);
+    assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(query.fetchCount());
+  }
+
+  @Test
+  public void keepReferencedLeftJoin() {
+    JPAQuery<Member> query = queryFactory.selectFrom(member)
+                                         .leftJoin(member.team, team)
+                                         .where(team.name.eq("teamA"));
+
+    assertThat(CountQueryBuilder.countMetadata(query.getMetadata()).getJoins()).hasSize(2);
+    assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(2);
+  }
+
+  @Test
+  public void keepCollectionJoin() {
+    // team 1 : N member 조인은 행 수를 바꾸므로 제거하면 안 된다.
+    JPAQuery<Team> query = queryFactory.selectFrom(team).leftJoin(team.members, member);
+
+    assertThat(CountQueryBuilder.countMetadata(query.getMetadata()).getJoins()).hasSize(2);
+    assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(query.fetchCount());
+  }
+
+  @Test
+  public void groupBy() {
+    JPAQuery<String> query = queryFactory.select(team.name)
+                                         .from(member)
+                                         .join(member.team, team)
+                                         .groupBy(team.name);
+
+    assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(2);
+  }
+
+  @Test
+  public void groupByCountsNullKeyAndHaving() {
+    // member5 는 팀이 없으므로 null 그룹이 하나 더 있다.
+    JPAQuery<String> query = queryFactory.select(team.name)
+                                         .from(member)
+                                         .leftJoin(member.team, team)
+                                         .groupBy(team.name);
+    assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(query.fetch().size()).isEqualTo(3);
+
+    query.having(member.count().gt(1L));
+    assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(2);
+  }
+
+  @Test
+  public void distinctProjection() {
+    em.persist(new Member("member6", 10));
+    JPAQuery<Integer> ages = queryFactory.select(member.age).distinct().from(member);
+    assertThat(CountQueryBuilder.count(em, ages).getAsLong()).isEqualTo(ages.fetch().size()).isEqualTo(5);
+
+    JPAQuery<String> teamNames = queryFactory.select(team.name).distinct().from(member).leftJoin(member.team, team);
+    assertThat(CountQueryBuilder.count(em, teamNames).getAsLong()).isEqualTo(3);
+  }
+
+  @Test
+  public void applyPagination() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(20);
+    PageRequest pageRequest = PageRequest.of(0, 2);
+
+    Page<Member> lean = memberTestRepository.applyPagination(condition, pageRequest);
+    Page<Member> fetchCount = memberTestRepository.searchPageByApplyPage(condition, pageRequest);
+
+    assertThat(lean.getTotalElements()).isEqualTo(fetchCount.getTotalElements()).isEqualTo(4);
+    assertThat(lean.getContent()).hasSize(2);
+  }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+
+class QueryCostGuardTest {
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  QueryGuardProperties properties = new QueryGuardProperties();
+  QueryCostGuard guard = new QueryCostGuard(properties, meterRegistry);
+
+  @Test
+  public void capPageSize() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("member1");
+
+    Pageable checked = guard.checkPage("search", condition, PageRequest.of(2, 500));
+
+    assertThat(checked.getPageSize()).isEqualTo(100);
+    assertThat(checked.getPageNumber()).isEqualTo(2);
+    assertThat(meterRegistry.counter("query.guard",
+        "operation", "search", "outcome", "capped", "reason", "pageSize").count()).isEqualTo(1);
+  }
+
+  @Test
+  public void rejectUnindexedSort() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("member1");
+
+    assertThatThrownBy(() -> guard.checkPage("search", condition, PageRequest.of(0, 10, Sort.by("teamName"))))
+        .isInstanceOf(QueryRejectedException.class);
+    assertThat(guard.checkPage("search", condition, PageRequest.of(0, 10, Sort.by("id"))).getSort())
+        .isEqualTo(Sort.by("id"));
+  }
+
+  @Test
+  public void limitUnselectiveSearch() {
+    // ageGoe 만 있으면 범위가 한쪽으로 열려 있어서 선택적인 조건으로 보지 않는다.
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(20);
+
+    assertThat(guard.checkPage("search", condition, PageRequest.of(0, 100)).getPageSize()).isEqualTo(100);
+    assertThatThrownBy(() -> guard.checkPage("search", condition, PageRequest.of(10, 100)))
+        .isInstanceOf(QueryRejectedException.class);
+
+    properties.setRequireSelectivePredicate(true);
+    assertThatThrownBy(() -> guard.checkPage("search", condition, PageRequest.of(0, 10)))
+        .isInstanceOf(QueryRejectedException.class);
+    assertThatThrownBy(() -> guard.checkSearch("search", condition))
+        .isInstanceOf(QueryRejectedException.class);
+
+    condition.setAgeLoe(30);
+    guard.checkSearch("search", condition);
+  }
+}
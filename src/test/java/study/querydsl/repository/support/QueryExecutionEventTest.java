@@ -0,0 +1,100 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.support.QueryEventReport;
+
+@SpringBootTest
+@Transactional
+class QueryExecutionEventTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Autowired
+  QueryEventSwitch queryEvents;
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeEach
+  public void before() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    for (int i = 0; i < 5; i++) {
+      em.persist(new Member("member" + i, 10 + i, teamA));
+    }
+    em.flush();
+    em.clear();
+  }
+
+  @AfterEach
+  public void after() {
+    queryEvents.setEnabled(false);
+  }
+
+  @Test
+  public void recordPageSearch() throws Exception {
+    queryEvents.setEnabled(true);
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+
+    QueryEventReport report = record(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)));
+
+    List<RecordedEvent> events = report.getEvents();
+    assertThat(events).hasSize(1);
+    RecordedEvent event = events.get(0);
+    assertThat(event.getString("method")).isEqualTo("searchPageComplex");
+    assertThat(event.getString("predicates")).isEqualTo("teamName");
+    assertThat(event.getLong("rows")).isEqualTo(5);
+    assertThat(event.getInt("pageSize")).isEqualTo(10);
+    // 첫 페이지에서 모자라므로 count 쿼리 생략
+    assertThat(event.getString("countQuerySkipped")).isEqualTo("true");
+    assertThat(event.getInt("statements")).isEqualTo(1);
+    assertThat(event.getString("statementShape")).contains("from member");
+    assertThat(event.getDuration()).isPositive();
+
+    assertThat(report.summaries()).singleElement()
+                                  .satisfies(summary -> assertThat(summary.getKey())
+                                      .isEqualTo("MemberRepositoryImpl.searchPageComplex [teamName]"));
+  }
+
+  @Test
+  public void switchedOff() throws Exception {
+    QueryEventReport report = record(() -> memberRepository.search(new MemberSearchCondition()));
+
+    assertThat(report.getEvents()).isEmpty();
+  }
+
+  private QueryEventReport record(Runnable block) throws Exception {
+    Path file = tempDir.resolve("query-events.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(QueryExecutionEvent.NAME);
+      recording.start();
+      block.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return QueryEventReport.read(file);
+  }
+}
@@ -0,0 +1,105 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+
+@SpringBootTest
+@Transactional
+class Querydsl4RepositorySupportTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberTestRepository memberTestRepository;
+
+  @BeforeEach
+  public void before() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(new Member("member4", 40, teamB));
+    em.persist(new Member("member5", 50));
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  public void applySlice() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(20);
+
+    Slice<Member> first = memberTestRepository.applySlice(condition, PageRequest.of(0, 3, Sort.by("id")));
+    Slice<Member> last = memberTestRepository.applySlice(condition, PageRequest.of(1, 3, Sort.by("id")));
+
+    assertThat(first.getContent()).extracting("username").containsExactly("member2", "member3", "member4");
+    assertThat(first.hasNext()).isTrue();
+    assertThat(last.getContent()).extracting("username").containsExactly("member5");
+    assertThat(last.hasNext()).isFalse();
+  }
+
+  @Test
+  public void applyDeferredPagination() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(20);
+    PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+    Page<Member> deferred = memberTestRepository.applyDeferredPagination(condition, pageRequest);
+    Page<Member> plain = memberTestRepository.applyPagination(condition, pageRequest);
+
+    // id in (...) 으로 다시 읽어도 정렬 순서는 그대로 유지된다.
+    assertThat(deferred.getContent()).extracting("username").containsExactly("member3", "member2");
+    assertThat(deferred.getContent()).extracting("username")
+                                     .isEqualTo(plain.getContent().stream().map(Member::getUsername).toList());
+    assertThat(deferred.getTotalElements()).isEqualTo(4);
+  }
+
+  @Test
+  public void applyDeferredPaginationDto() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamB");
+    PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"));
+
+    Page<MemberTeamDto> result = memberTestRepository.applyDeferredPaginationDto(condition, pageRequest);
+
+    assertThat(result.getContent()).extracting("username").containsExactly("member4");
+    assertThat(result.getContent()).extracting("teamName").containsExactly("teamB");
+    assertThat(result.getTotalElements()).isEqualTo(2);
+  }
+
+  @Test
+  public void guardUsesCallerSelectivity() {
+    // where 절(ageGoe)이 있어도 한쪽 나이 범위만으로는 선택적이지 않으므로 앞쪽 unselective-max-rows 행까지만 허용한다.
+    MemberSearchCondition wide = new MemberSearchCondition();
+    wide.setAgeGoe(20);
+    PageRequest deep = PageRequest.of(100, 20);
+
+    assertThatThrownBy(() -> memberTestRepository.applyPagination(wide, deep))
+        .isInstanceOf(QueryRejectedException.class);
+    assertThatThrownBy(() -> memberTestRepository.applySlice(wide, deep))
+        .isInstanceOf(QueryRejectedException.class);
+
+    MemberSearchCondition selective = new MemberSearchCondition();
+    selective.setTeamName("teamA");
+    assertThat(memberTestRepository.applyPagination(selective, deep).getContent()).isEmpty();
+  }
+}
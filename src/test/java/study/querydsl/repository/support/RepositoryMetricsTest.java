@@ -0,0 +1,147 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+
+// 스프링 컨텍스트 없이 RepositoryMetrics 를 프록시에 붙여서 SimpleMeterRegistry 에 남는 값을 확인한다.
+class RepositoryMetricsTest {
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  FakeRepository repository;
+
+  @BeforeEach
+  public void before() {
+    FakeRepository target = new FakeRepository();
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    factory.addAspect(new RepositoryMetrics(meterRegistry, new QueryEventSwitch(false)));
+    repository = factory.getProxy();
+    // 안쪽 호출도 프록시를 거치게 한다.
+    target.self = repository;
+  }
+
+  @Test
+  public void countSkippedTag() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+
+    // 가득 찬 첫 페이지는 count 를 실행하고, 한 페이지에 다 들어가면 생략한다.
+    repository.page(condition, PageRequest.of(0, 2), 2);
+    repository.page(condition, PageRequest.of(0, 2), 1);
+    repository.list(condition);
+
+    assertThat(timer("page", "teamName", "false").count()).isEqualTo(1);
+    assertThat(timer("page", "teamName", "true").count()).isEqualTo(1);
+    assertThat(timer("list", "teamName", "n/a").count()).isEqualTo(1);
+    assertThat(meterRegistry.counter("repository.query.count",
+        "class", "FakeRepository", "method", "page", "predicates", "teamName", "skipped", "true").count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("repository.query.rows").tag("method", "list").summary().totalAmount())
+        .isEqualTo(3);
+  }
+
+  @Test
+  public void exceptionTag() {
+    assertThatThrownBy(() -> repository.fail(new MemberSearchCondition()))
+        .isInstanceOf(IllegalStateException.class);
+
+    Timer timer = meterRegistry.get("repository.query")
+                               .tags("method", "fail", "predicates", "none", "exception", "IllegalStateException")
+                               .timer();
+    assertThat(timer.count()).isEqualTo(1);
+  }
+
+  @Test
+  public void pageSize() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    repository.page(condition, PageRequest.of(0, 20), 20);
+    repository.page(condition, PageRequest.of(1, 50), 1);
+    repository.page(condition, Pageable.unpaged(), 1);
+
+    // unpaged 는 페이지 크기를 남기지 않는다.
+    DistributionSummary pageSize = meterRegistry.get("repository.query.page.size").tag("method", "page").summary();
+    assertThat(pageSize.count()).isEqualTo(2);
+    assertThat(pageSize.totalAmount()).isEqualTo(70);
+  }
+
+  @Test
+  public void nestedCallKeepsOuterCountState() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    // 바깥 호출이 먼저 count 를 실행했으면, count 를 생략한 안쪽 호출이 끝나도 바깥은 실행한 것으로 남는다.
+    repository.countThenNested(condition);
+
+    assertThat(timer("page", "none", "true").count()).isEqualTo(1);
+    assertThat(timer("countThenNested", "none", "false").count()).isEqualTo(1);
+  }
+
+  @Test
+  public void trackerRestoresPreviousState() {
+    assertThat(CountQueryTracker.begin()).isNull();
+    CountQueryTracker.markExecuted();
+
+    Boolean inner = CountQueryTracker.begin();
+    assertThat(inner).isTrue();
+    assertThat(CountQueryTracker.end(inner)).isFalse();
+
+    Boolean nested = CountQueryTracker.begin();
+    assertThat(nested).isTrue();
+    assertThat(CountQueryTracker.end(nested)).isFalse();
+
+    // 바깥 호출이 끝나면 ThreadLocal 을 비우므로 다음 호출은 이전 상태가 없다.
+    assertThat(CountQueryTracker.end(null)).isTrue();
+    assertThat(CountQueryTracker.begin()).isNull();
+    assertThat(CountQueryTracker.end(null)).isFalse();
+  }
+
+  private Timer timer(String method, String predicates, String countSkipped) {
+    return meterRegistry.get("repository.query")
+                        .tags("class", "FakeRepository", "method", method, "predicates", predicates,
+                            "countSkipped", countSkipped, "exception", "none")
+                        .timer();
+  }
+
+  public static class FakeRepository extends Querydsl4RepositorySupport {
+
+    FakeRepository self;
+
+    public FakeRepository() {
+      super(Member.class);
+    }
+
+    // 전체 20 건 중 rows 건을 읽은 페이지
+    public Page<String> page(MemberSearchCondition condition, Pageable pageable, int rows) {
+      List<String> content = Collections.nCopies(rows, "member");
+      return PageableExecutionUtils.getPage(content, pageable, CountQueryTracker.track(() -> 20));
+    }
+
+    public List<String> list(MemberSearchCondition condition) {
+      return List.of("member1", "member2", "member3");
+    }
+
+    public List<String> fail(MemberSearchCondition condition) {
+      throw new IllegalStateException("fail");
+    }
+
+    public Page<String> countThenNested(MemberSearchCondition condition) {
+      CountQueryTracker.markExecuted();
+      self.page(condition, PageRequest.of(0, 2), 1);
+      return Page.empty();
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package study.querydsl.repository.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+// 커밋 직전에 반영되므로 테스트 트랜잭션(롤백)을 쓰지 않고 데이터를 직접 지운다.
+@SpringBootTest
+class MemberTeamViewSynchronizerTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  TransactionTemplate tx;
+
+  @BeforeEach
+  public void before() {
+    tx = new TransactionTemplate(transactionManager);
+    tx.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      em.persist(new Member("member1", 10, teamA));
+      em.persist(new Member("member2", 20, teamA));
+      em.persist(new Member("member3", 30, teamB));
+      em.persist(new Member("member4", 40, null));
+    });
+  }
+
+  @AfterEach
+  public void after() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+    // 벌크 delete 도 다시 만들어지므로 비어 있어야 한다.
+    assertThat(memberRepository.searchView(new MemberSearchCondition())).isEmpty();
+  }
+
+  @Test
+  public void sameAsJoinSearch() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    assertThat(memberRepository.searchView(condition)).hasSize(4);
+
+    condition.setTeamName("teamA");
+    condition.setAgeGoe(15);
+    List<MemberTeamDto> result = memberRepository.searchView(condition);
+
+    assertThat(result).extracting("username").containsExactly("member2");
+    assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                      .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+  }
+
+  @Test
+  public void changeTeamAndRenameTeam() {
+    tx.executeWithoutResult(status -> {
+      Member member1 = findMember("member1");
+      Team teamB = em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult();
+      member1.changeTeam(teamB);
+      teamB.setName("teamC");
+    });
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamC");
+    assertThat(memberRepository.searchView(condition)).extracting("username")
+                                                      .containsExactlyInAnyOrder("member1", "member3");
+  }
+
+  @Test
+  public void removeMember() {
+    tx.executeWithoutResult(status -> em.remove(findMember("member2")));
+
+    assertThat(memberRepository.searchView(new MemberSearchCondition())).extracting("username")
+                                                                       .containsExactlyInAnyOrder("member1",
+                                                                           "member3", "member4");
+  }
+
+  @Test
+  public void bulkUpdateRebuildsView() {
+    tx.executeWithoutResult(status -> queryFactory.update(member)
+                                                  .set(member.age, member.age.add(1))
+                                                  .where(member.age.lt(30))
+                                                  .execute());
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeLoe(21);
+    assertThat(memberRepository.searchView(condition)).extracting("age").containsExactlyInAnyOrder(11, 21);
+  }
+
+  @Test
+  public void rollbackLeavesViewUntouched() {
+    tx.executeWithoutResult(status -> {
+      findMember("member1").setUsername("changed");
+      em.flush();
+      status.setRollbackOnly();
+    });
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("member1");
+    assertThat(memberRepository.searchView(condition)).hasSize(1);
+  }
+
+  private Member findMember(String username) {
+    return em.createQuery("select m from Member m where m.username = :username", Member.class)
+             .setParameter("username", username)
+             .getSingleResult();
+  }
+}
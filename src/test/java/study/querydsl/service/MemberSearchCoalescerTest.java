@@ -0,0 +1,95 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberSearchKey;
+
+class MemberSearchCoalescerTest {
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  MemberSearchKey key = MemberSearchKey.of("search", new MemberSearchCondition(), null);
+
+  @Test
+  public void coalesceConcurrentSearches() throws Exception {
+    MemberSearchCoalescer coalescer = new MemberSearchCoalescer(meterRegistry, Duration.ofSeconds(5));
+    AtomicInteger executions = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> coalescer.execute(key, () -> {
+        executions.incrementAndGet();
+        started.countDown();
+        await(release);
+        return "result";
+      }), executor);
+      started.await(5, TimeUnit.SECONDS);
+
+      List<CompletableFuture<String>> followers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        followers.add(CompletableFuture.supplyAsync(() -> coalescer.execute(key, () -> {
+          executions.incrementAndGet();
+          return "other";
+        }), executor));
+      }
+      while (meterRegistry.counter("member.search.coalescing", "role", "follower").count() < 4) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+      for (CompletableFuture<String> follower : followers) {
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+      }
+      assertThat(executions).hasValue(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void runDirectlyAfterTimeout() throws Exception {
+    MemberSearchCoalescer coalescer = new MemberSearchCoalescer(meterRegistry, Duration.ofMillis(50));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> coalescer.execute(key, () -> {
+        started.countDown();
+        await(release);
+        return "slow";
+      }), executor);
+      started.await(5, TimeUnit.SECONDS);
+
+      assertThat(coalescer.execute(key, () -> "direct")).isEqualTo("direct");
+      assertThat(meterRegistry.counter("member.search.coalescing", "role", "timeout").count()).isEqualTo(1);
+
+      release.countDown();
+      assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.cache.MemberSearchCache;
+
+// 읽기-쓰기 트랜잭션 안의 검색은 캐시를 거치지 않으므로 테스트 트랜잭션(롤백)을 쓰지 않고 데이터를 커밋한 뒤 직접 지운다.
+@SpringBootTest
+class MemberSearchServiceTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberSearchService memberSearchService;
+  @Autowired
+  MemberSearchCache searchCache;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  TransactionTemplate tx;
+  Long teamAId;
+
+  @BeforeEach
+  public void before() {
+    tx = new TransactionTemplate(transactionManager);
+    teamAId = tx.execute(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      em.persist(new Member("member1", 10, teamA));
+      em.persist(new Member("member2", 20, teamA));
+      em.persist(new Member("member3", 30, teamB));
+      em.persist(new Member("member4", 40, teamB));
+      return teamA.getId();
+    });
+  }
+
+  @AfterEach
+  public void after() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+  }
+
+  @Test
+  public void cacheHit() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(0, 3);
+    long hits = searchCache.stats().hitCount();
+
+    Page<MemberTeamDto> first = memberSearchService.searchPageSimple(condition, pageRequest);
+    Page<MemberTeamDto> second = memberSearchService.searchPageSimple(condition, pageRequest);
+
+    assertThat(second).isSameAs(first);
+    assertThat(searchCache.stats().hitCount()).isEqualTo(hits + 1);
+    // 같은 인스턴스를 모든 호출자가 받으므로 content 는 바꿀 수 없다.
+    assertThatThrownBy(() -> second.getContent().clear()).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void bypassInReadWriteTransaction() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+    long hits = searchCache.stats().hitCount();
+
+    List<MemberTeamDto> result = tx.execute(status -> {
+      memberSearchService.search(condition);
+      return memberSearchService.search(condition);
+    });
+
+    assertThat(result).hasSize(2);
+    assertThat(searchCache.stats().hitCount()).isEqualTo(hits);
+    assertThatThrownBy(() -> result.add(result.get(0))).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void invalidateOnWrite() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+    assertThat(memberSearchService.search(condition)).hasSize(2);
+
+    // insert 가 나가는 순간 캐시가 비워진다.
+    tx.executeWithoutResult(status -> em.persist(new Member("member5", 50, em.find(Team.class, teamAId))));
+    assertThat(memberSearchService.search(condition)).hasSize(3);
+
+    // 벌크 update 도 마찬가지
+    tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = m.age + 1").executeUpdate());
+    assertThat(memberSearchService.search(condition)).extracting("age").containsExactlyInAnyOrder(11, 21, 51);
+  }
+}
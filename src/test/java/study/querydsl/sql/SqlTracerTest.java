@@ -0,0 +1,84 @@
+package study.querydsl.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// H2 메모리 DB 에 직접 연결해서 추적 결과만 확인한다. drain 은 테스트에서 직접 호출한다.
+class SqlTracerTest {
+
+  SqlTraceBuffer buffer = new SqlTraceBuffer(4, Duration.ofHours(1));
+
+  @AfterEach
+  public void after() {
+    buffer.close();
+  }
+
+  @Test
+  public void sampledStatementKeepsBinds() {
+    JdbcTemplate jdbc = jdbc(1.0, Duration.ZERO);
+
+    jdbc.queryForObject("select count(*) from node where name = ? and weight > ?", Long.class, "nodeA", 3);
+
+    assertThat(buffer.recent(10)).singleElement().satisfies(trace -> {
+      assertThat(trace.getReason()).isEqualTo(SqlTrace.Reason.SAMPLED);
+      assertThat(trace.getSql()).contains("where name = ?");
+      assertThat(trace.formatBinds()).isEqualTo("[nodeA, 3]");
+    });
+  }
+
+  @Test
+  public void fastStatementIsNotRecorded() {
+    JdbcTemplate jdbc = jdbc(0, Duration.ofMinutes(1));
+
+    jdbc.queryForObject("select count(*) from node", Long.class);
+
+    assertThat(buffer.getRecorded()).isZero();
+  }
+
+  @Test
+  public void slowStatementIsAlwaysRecorded() {
+    JdbcTemplate jdbc = jdbc(0, Duration.ofNanos(1));
+
+    jdbc.queryForObject("select count(*) from node", Long.class);
+
+    assertThat(buffer.recent(10)).singleElement()
+                                 .extracting(SqlTrace::getReason)
+                                 .isEqualTo(SqlTrace.Reason.SLOW);
+  }
+
+  @Test
+  public void overwrittenTracesAreCountedAsDropped() {
+    JdbcTemplate jdbc = jdbc(1.0, Duration.ZERO);
+
+    for (int i = 0; i < 10; i++) {
+      jdbc.update("update node set weight = ? where name = 'nodeA'", i);
+    }
+    buffer.drain();
+
+    assertThat(buffer.getRecorded()).isEqualTo(10);
+    assertThat(buffer.getDropped()).isEqualTo(10 - buffer.capacity());
+    // 최근 것만 남아 있다.
+    assertThat(buffer.recent(10)).hasSize(buffer.capacity())
+                                 .first()
+                                 .extracting(SqlTrace::formatBinds)
+                                 .isEqualTo("[9]");
+  }
+
+  private JdbcTemplate jdbc(double sampleRate, Duration slowThreshold) {
+    SqlTraceProperties properties = new SqlTraceProperties();
+    properties.setSampleRate(sampleRate);
+    properties.setSlowThreshold(slowThreshold);
+    DataSource target = new DriverManagerDataSource("jdbc:h2:mem:sql_tracer;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate setup = new JdbcTemplate(target);
+    setup.execute("create table if not exists node (name varchar(20), weight int)");
+    setup.execute("delete from node");
+    setup.execute("insert into node values ('nodeA', 1)");
+    return new JdbcTemplate(new TracingDataSource(target, new SqlTracer(buffer, properties)));
+  }
+}
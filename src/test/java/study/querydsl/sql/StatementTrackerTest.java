@@ -0,0 +1,84 @@
+package study.querydsl.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.support.StatementCountAssert.assertThatStatements;
+import static study.querydsl.support.StatementCountAssert.countStatements;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class StatementTrackerTest {
+
+  @Autowired
+  EntityManager em;
+
+  JPAQueryFactory queryFactory;
+
+  @BeforeEach
+  public void before() {
+    queryFactory = new JPAQueryFactory(em);
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(new Member("member4", 40, teamB));
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  public void lazyLoadingIsNPlusOne() {
+    StatementScope scope = countStatements(() -> {
+      List<Member> members = queryFactory.selectFrom(member).fetch();
+      members.forEach(m -> m.getTeam().getName());
+    });
+
+    // member 조회 1 + team 조회 2 (teamA, teamB)
+    assertThatStatements(scope).hasCount(3);
+    assertThat(scope.getMostRepeated()).isEqualTo(2);
+  }
+
+  @Test
+  public void fetchJoinIsOneStatement() {
+    StatementScope scope = countStatements(() -> {
+      List<Member> members = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch();
+      members.forEach(m -> m.getTeam().getName());
+    });
+
+    assertThatStatements(scope).hasCount(1).hasNoRepeatsOver(1);
+  }
+
+  @Test
+  public void failWhenRepeatBudgetExceeded() {
+    StatementBudget budget = new StatementBudget(0, 1, StatementBudget.Action.FAIL);
+    try (StatementScope ignored = StatementTracker.open("n+1", budget)) {
+      List<Member> members = queryFactory.selectFrom(member).orderBy(member.id.asc()).fetch();
+      assertThatThrownBy(() -> members.forEach(m -> m.getTeam().getName()))
+          .satisfies(e -> assertThat(NestedExceptionUtils.getMostSpecificCause(e))
+              .isInstanceOf(StatementBudgetExceededException.class));
+    }
+  }
+
+  @Test
+  public void normalizeShape() {
+    assertThat(SqlShapes.normalize("select m1_0.member_id from member m1_0 where m1_0.age in (10, 20,30) and m1_0.username='a'"))
+        .isEqualTo("select m1_0.member_id from member m1_0 where m1_0.age in (?) and m1_0.username=?");
+  }
+}
@@ -0,0 +1,102 @@
+package study.querydsl.support;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import study.querydsl.repository.support.QueryExecutionEvent;
+
+/**
+ * JFR 녹화 파일에서 {@link QueryExecutionEvent} 만 읽어서 메서드 + 조건 조합별로 요약한다.
+ *
+ * <pre>
+ * QueryEventReport report = QueryEventReport.read(Path.of("recording.jfr"));
+ * System.out.println(report.format());
+ * </pre>
+ * 단독 실행: main 에 .jfr 파일 경로를 넘긴다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class QueryEventReport {
+
+  private final List<RecordedEvent> events;
+
+  public static QueryEventReport read(Path recording) throws IOException {
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+      if (event.getEventType().getName().equals(QueryExecutionEvent.NAME)) {
+        events.add(event);
+      }
+    }
+    return new QueryEventReport(events);
+  }
+
+  // "Repository.method [predicates]" 별 요약, 총 시간이 큰 순서
+  public List<Summary> summaries() {
+    Map<String, List<RecordedEvent>> groups = new LinkedHashMap<>();
+    for (RecordedEvent event : events) {
+      String key = event.getString("repository") + "." + event.getString("method")
+          + " [" + event.getString("predicates") + "]";
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+    }
+    List<Summary> summaries = new ArrayList<>();
+    groups.forEach((key, group) -> summaries.add(Summary.of(key, group)));
+    summaries.sort(Comparator.comparing(Summary::getTotal).reversed());
+    return summaries;
+  }
+
+  public String format() {
+    StringBuilder report = new StringBuilder(String.format("%-60s %6s %10s %10s %10s %8s %10s%n",
+        "query", "count", "p50(ms)", "p95(ms)", "max(ms)", "rows", "countSkip"));
+    for (Summary summary : summaries()) {
+      report.append(String.format("%-60s %6d %10.2f %10.2f %10.2f %8d %10d%n",
+          summary.getKey(), summary.getCount(), millis(summary.getP50()), millis(summary.getP95()),
+          millis(summary.getMax()), summary.getRows(), summary.getCountSkipped()));
+    }
+    return report.toString();
+  }
+
+  private static double millis(Duration duration) {
+    return duration.toNanos() / 1_000_000d;
+  }
+
+  public static void main(String[] args) throws IOException {
+    System.out.print(read(Path.of(args[0])).format());
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Summary {
+
+    private final String key;
+    private final int count;
+    private final Duration total;
+    private final Duration p50;
+    private final Duration p95;
+    private final Duration max;
+    private final long rows;
+    private final long countSkipped;
+
+    static Summary of(String key, List<RecordedEvent> events) {
+      List<Duration> durations = events.stream().map(RecordedEvent::getDuration).sorted().toList();
+      Duration total = durations.stream().reduce(Duration.ZERO, Duration::plus);
+      long rows = events.stream().mapToLong(event -> Math.max(0, event.getLong("rows"))).sum();
+      long countSkipped = events.stream().filter(event -> "true".equals(event.getString("countQuerySkipped"))).count();
+      return new Summary(key, events.size(), total, percentile(durations, 0.5), percentile(durations, 0.95),
+          durations.get(durations.size() - 1), rows, countSkipped);
+    }
+
+    private static Duration percentile(List<Duration> sorted, double percentile) {
+      int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+      return sorted.get(Math.max(0, index));
+    }
+  }
+}
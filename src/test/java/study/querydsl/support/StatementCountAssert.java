@@ -0,0 +1,53 @@
+package study.querydsl.support;
+
+import java.util.Map;
+import org.assertj.core.api.AbstractAssert;
+import study.querydsl.sql.StatementBudget;
+import study.querydsl.sql.StatementScope;
+import study.querydsl.sql.StatementTracker;
+
+/**
+ * 테스트에서 실행된 SQL 수를 고정하기 위한 assertion
+ *
+ * <pre>
+ * StatementScope scope = StatementCountAssert.countStatements(() -> repository.search(condition));
+ * assertThatStatements(scope).hasCount(1).hasNoRepeatsOver(1);
+ * </pre>
+ * JPA 쓰기 지연 때문에 insert / update 를 세려면 블록 안에서 flush 해야 한다.
+ */
+public class StatementCountAssert extends AbstractAssert<StatementCountAssert, StatementScope> {
+
+  private StatementCountAssert(StatementScope actual) {
+    super(actual, StatementCountAssert.class);
+  }
+
+  public static StatementCountAssert assertThatStatements(StatementScope actual) {
+    return new StatementCountAssert(actual);
+  }
+
+  public static StatementScope countStatements(Runnable block) {
+    try (StatementScope scope = StatementTracker.open("test", StatementBudget.unlimited())) {
+      block.run();
+      return scope;
+    }
+  }
+
+  public StatementCountAssert hasCount(int expected) {
+    isNotNull();
+    if (actual.getCount() != expected) {
+      failWithMessage("Expected <%d> statements but was <%d>: %s", expected, actual.getCount(), actual.getShapes());
+    }
+    return this;
+  }
+
+  public StatementCountAssert hasNoRepeatsOver(int maxRepeats) {
+    isNotNull();
+    for (Map.Entry<String, Integer> shape : actual.getShapes().entrySet()) {
+      if (shape.getValue() > maxRepeats) {
+        failWithMessage("Expected no statement repeated more than <%d> times but <%s> ran <%d> times",
+            maxRepeats, shape.getKey(), shape.getValue());
+      }
+    }
+    return this;
+  }
+}